@@ -0,0 +1,55 @@
+package com.hillel.springapp.benchmark;
+
+import com.hillel.springapp.dto.OrderDTO;
+import com.hillel.springapp.dto.OrderDates;
+import com.hillel.springapp.dto.ProductDTO;
+import com.hillel.springapp.entity.Order;
+import com.hillel.springapp.entity.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkData {
+
+    static final String ORDER_DATE = "2023-07-06";
+
+    private BenchmarkData() {
+    }
+
+    static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setId((long) i + 1);
+            product.setName("Product " + (i + 1));
+            product.setCost(10.0 + i % 90);
+            products.add(product);
+        }
+        return products;
+    }
+
+    static List<Order> orders(int count, int orderSize) {
+        List<Product> products = products(orderSize);
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Order order = new Order();
+            order.setId((long) i + 1);
+            order.setDate(OrderDates.parse(ORDER_DATE));
+            order.setProducts(new ArrayList<>(products));
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    static List<ProductDTO> productDTOs(int count) {
+        List<ProductDTO> productDTOs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            productDTOs.add(new ProductDTO(i + 1, "Product " + (i + 1), 10.0 + i % 90));
+        }
+        return productDTOs;
+    }
+
+    static OrderDTO orderDTO(long id, int orderSize) {
+        return new OrderDTO(id, ORDER_DATE, 0, productDTOs(orderSize));
+    }
+}
@@ -0,0 +1,76 @@
+package com.hillel.springapp.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.hillel.springapp.dto.OrderDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncodingBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int orderSize;
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper smile = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+    private final ObjectMapper cbor = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+
+    private OrderDTO order;
+
+    @Setup
+    public void setup() {
+        order = BenchmarkData.orderDTO(1, orderSize);
+    }
+
+    @Benchmark
+    public byte[] json(WireSize wireSize) throws IOException {
+        return wireSize.record(json.writeValueAsBytes(order));
+    }
+
+    @Benchmark
+    public byte[] jsonGzip(WireSize wireSize) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            json.writeValue(gzip, order);
+        }
+        return wireSize.record(bytes.toByteArray());
+    }
+
+    @Benchmark
+    public byte[] smile(WireSize wireSize) throws IOException {
+        return wireSize.record(smile.writeValueAsBytes(order));
+    }
+
+    @Benchmark
+    public byte[] cbor(WireSize wireSize) throws IOException {
+        return wireSize.record(cbor.writeValueAsBytes(order));
+    }
+
+    /**
+     * Reports the encoded size as a secondary {@code bytes} result next to the timing, so it ends up
+     * in the JMH output and {@code jmh-result.json}.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class WireSize {
+
+        public long bytes;
+
+        byte[] record(byte[] encoded) {
+            bytes = encoded.length;
+            return encoded;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.hillel.springapp.benchmark;
+
+import com.hillel.springapp.dto.OrderDTO;
+import com.hillel.springapp.dto.ProductDTO;
+import com.hillel.springapp.entity.Order;
+import com.hillel.springapp.entity.Product;
+import com.hillel.springapp.mapper.OrderMapper;
+import com.hillel.springapp.mapper.OrderMapperImpl;
+import com.hillel.springapp.mapper.ProductMapper;
+import com.hillel.springapp.mapper.ProductMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int orderSize;
+
+    @Param({"10", "100", "1000"})
+    public int resultSize;
+
+    private final OrderMapper orderMapper = new OrderMapperImpl();
+    private final ProductMapper productMapper = new ProductMapperImpl();
+
+    private List<Order> orders;
+    private List<Product> products;
+
+    @Setup
+    public void setup() {
+        orders = BenchmarkData.orders(resultSize, orderSize);
+        products = BenchmarkData.products(resultSize);
+    }
+
+    @Benchmark
+    public List<OrderDTO> ordersToOrderDTOs() {
+        return orderMapper.ordersToOrderDTOs(orders);
+    }
+
+    @Benchmark
+    public List<ProductDTO> productsToProductDTOs() {
+        return productMapper.productsToProductDTOs(products);
+    }
+}
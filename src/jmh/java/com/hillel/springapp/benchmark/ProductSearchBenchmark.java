@@ -0,0 +1,47 @@
+package com.hillel.springapp.benchmark;
+
+import com.hillel.springapp.dto.ProductDTO;
+import com.hillel.springapp.search.ProductSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductSearchBenchmark {
+
+    private static final String[] WORDS = {"green", "black", "steel", "glass", "ceramic", "coffee", "tea", "kettle",
+            "grinder", "mug", "cup", "teapot", "filter", "press", "scale", "spoon", "jar", "tray", "set", "mini"};
+
+    @Param({"10000", "1000000"})
+    public int catalogSize;
+
+    @Param({"k", "te", "kettle", "steel mug", "model 12345", "missing"})
+    public String query;
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        List<ProductDTO> products = new ArrayList<>(catalogSize);
+        for (int i = 1; i <= catalogSize; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " model " + i;
+            products.add(new ProductDTO(i, name, 10.0 + i % 90));
+        }
+        index.addAll(products);
+    }
+
+    @Benchmark
+    public List<ProductDTO> search() {
+        return index.search(query, 10, 5000);
+    }
+}
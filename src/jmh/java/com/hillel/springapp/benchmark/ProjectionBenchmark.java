@@ -0,0 +1,114 @@
+package com.hillel.springapp.benchmark;
+
+import com.hillel.springapp.SpringAppApplication;
+import com.hillel.springapp.dto.CursorPageDTO;
+import com.hillel.springapp.dto.OrderDTO;
+import com.hillel.springapp.dto.ProductDTO;
+import com.hillel.springapp.mapper.OrderMapper;
+import com.hillel.springapp.mapper.ProductMapper;
+import com.hillel.springapp.repository.OrderRepository;
+import com.hillel.springapp.repository.ProductRepository;
+import com.hillel.springapp.service.OrderService;
+import com.hillel.springapp.service.ProductImportService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares loading managed entities and copying them with MapStruct against selecting straight
+ * into DTOs. Both order-by-id paths go through {@code OrderService}: the entity graph behind
+ * {@code getOrderById} against the header and line projections behind {@code getOrdersPage}, asked
+ * for the one order. Run it with the default {@code gc} profiler and compare
+ * {@code gc.alloc.rate.norm}, the bytes allocated per call. The second-level cache is off so both
+ * paths read from the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+
+    @Param({"10", "100"})
+    public int orderSize;
+
+    @Param({"10", "100"})
+    public int resultSize;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private OrderRepository orderRepository;
+    private ProductRepository productRepository;
+    private OrderMapper orderMapper;
+    private ProductMapper productMapper;
+    private TransactionTemplate readOnly;
+    private long orderId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(SpringAppApplication.class)
+                .profiles("benchmark")
+                .properties("app.cache.hibernate.enabled=false")
+                .run();
+        orderService = context.getBean(OrderService.class);
+        orderRepository = context.getBean(OrderRepository.class);
+        productRepository = context.getBean(ProductRepository.class);
+        orderMapper = context.getBean(OrderMapper.class);
+        productMapper = context.getBean(ProductMapper.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        context.getBean(ProductImportService.class).importProducts(BenchmarkData.productDTOs(orderSize));
+        List<ProductDTO> catalog = productRepository.findAllDtos();
+        for (int i = 0; i < resultSize; i++) {
+            OrderDTO created = orderService.addOrder(new OrderDTO(0, BenchmarkData.ORDER_DATE, 0, catalog));
+            if (i == 0) {
+                orderId = created.getId();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public OrderDTO orderByIdEntity() {
+        return orderService.getOrderById(orderId);
+    }
+
+    @Benchmark
+    public CursorPageDTO<OrderDTO> orderByIdProjection() {
+        return orderService.getOrdersPage(orderId - 1, 1);
+    }
+
+    @Benchmark
+    public List<OrderDTO> ordersPageEntity() {
+        return readOnly.execute(status -> orderMapper.ordersToOrderDTOs(
+                orderRepository.findAll(PageRequest.of(0, resultSize, Sort.by("id"))).getContent()));
+    }
+
+    @Benchmark
+    public CursorPageDTO<OrderDTO> ordersPageProjection() {
+        return orderService.getOrdersPage(null, resultSize);
+    }
+
+    @Benchmark
+    public List<ProductDTO> productsEntity() {
+        return readOnly.execute(status -> productMapper.productsToProductDTOs(productRepository.findAll()));
+    }
+
+    @Benchmark
+    public List<ProductDTO> productsProjection() {
+        return readOnly.execute(status -> productRepository.findAllDtos());
+    }
+}
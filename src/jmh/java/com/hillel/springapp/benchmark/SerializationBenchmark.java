@@ -0,0 +1,52 @@
+package com.hillel.springapp.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hillel.springapp.dto.CursorPageDTO;
+import com.hillel.springapp.dto.OrderDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int orderSize;
+
+    @Param({"1", "50"})
+    public int resultSize;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private OrderDTO order;
+    private CursorPageDTO<OrderDTO> page;
+
+    @Setup
+    public void setup() {
+        order = BenchmarkData.orderDTO(1, orderSize);
+        List<OrderDTO> orders = new ArrayList<>(resultSize);
+        for (int i = 0; i < resultSize; i++) {
+            orders.add(BenchmarkData.orderDTO(i + 1, orderSize));
+        }
+        page = new CursorPageDTO<>(orders, (long) resultSize);
+    }
+
+    @Benchmark
+    public byte[] serializeOrder() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] serializeOrdersPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
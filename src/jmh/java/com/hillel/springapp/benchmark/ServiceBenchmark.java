@@ -0,0 +1,98 @@
+package com.hillel.springapp.benchmark;
+
+import com.hillel.springapp.SpringAppApplication;
+import com.hillel.springapp.config.CacheConfiguration;
+import com.hillel.springapp.dto.CursorPageDTO;
+import com.hillel.springapp.dto.OrderDTO;
+import com.hillel.springapp.dto.ProductDTO;
+import com.hillel.springapp.service.OrderService;
+import com.hillel.springapp.service.ProductImportService;
+import com.hillel.springapp.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int orderSize;
+
+    @Param({"10", "100", "1000"})
+    public int resultSize;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private ProductService productService;
+    private Cache productCache;
+    private long orderId;
+    private long productId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(SpringAppApplication.class)
+                .profiles("benchmark")
+                .run();
+        orderService = context.getBean(OrderService.class);
+        productService = context.getBean(ProductService.class);
+        productCache = context.getBean(CacheManager.class).getCache(CacheConfiguration.PRODUCTS);
+
+        context.getBean(ProductImportService.class).importProducts(BenchmarkData.productDTOs(orderSize));
+        List<ProductDTO> catalog = productService.getAllProducts();
+        for (int i = 0; i < resultSize; i++) {
+            OrderDTO created = orderService.addOrder(new OrderDTO(0, BenchmarkData.ORDER_DATE, 0, catalog));
+            if (i == 0) {
+                orderId = created.getId();
+            }
+        }
+        productId = catalog.get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public OrderDTO getOrderById() {
+        return orderService.getOrderById(orderId);
+    }
+
+    @Benchmark
+    public CursorPageDTO<OrderDTO> getOrdersPage() {
+        return orderService.getOrdersPage(null, resultSize);
+    }
+
+    @Benchmark
+    public List<ProductDTO> getAllProductsInOrder() {
+        return orderService.getAllProductsInOrder(orderId);
+    }
+
+    @Benchmark
+    public ProductDTO getProductById(ColdProductCache coldProductCache) {
+        return productService.getProductById(productId);
+    }
+
+    /**
+     * Evicts the product before every call so {@link #getProductById} measures the repository
+     * projection instead of a Caffeine hit.
+     */
+    @State(Scope.Thread)
+    public static class ColdProductCache {
+
+        @Setup(Level.Invocation)
+        public void evict(ServiceBenchmark benchmark) {
+            benchmark.productCache.evict(benchmark.productId);
+        }
+    }
+}
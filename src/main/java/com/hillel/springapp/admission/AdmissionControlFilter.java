@@ -0,0 +1,186 @@
+package com.hillel.springapp.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hillel.springapp.config.AdmissionProperties;
+import com.hillel.springapp.config.ReplicaDataSourceProperties;
+import com.hillel.springapp.controller.PingController;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.www.BasicAuthenticationConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sheds load before it reaches the database or the password check. Registered ahead of Spring
+ * Security, so clients are keyed by the username of their HTTP Basic credentials before those are
+ * checked, and anonymous requests by remote address. Every client draws from its own token bucket
+ * and gets 429 once it is empty; admitted requests then need one of a fixed number of in-flight
+ * permits, sized from the connection pools, and get 503 when none is free. Rejections are
+ * immediate and carry {@code Retry-After}, nothing queues on a Tomcat thread. The path of
+ * {@link PingController} bypasses both checks so health probes stay green under overload.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    public static final String ADMITTED = "app.admission.admitted";
+    public static final String REJECTED = "app.admission.rejected";
+    public static final String IN_FLIGHT = "app.admission.in.flight";
+
+    // Hikari only applies its default pool size when the pool starts
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+    private static final String PING_PATH = "/ping";
+
+    private final AdmissionProperties properties;
+    private final BasicAuthenticationConverter credentials = new BasicAuthenticationConverter();
+    private final int maxConcurrentRequests;
+    private final Semaphore permits;
+    private final Cache<String, TokenBucket> buckets;
+    private final Counter admitted;
+    private final Counter admittedPing;
+    private final Counter rateLimited;
+    private final Counter overloaded;
+
+    public AdmissionControlFilter(AdmissionProperties properties,
+                                  HikariDataSource primaryDataSource,
+                                  ReplicaDataSourceProperties replicaProperties,
+                                  MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.maxConcurrentRequests = properties.getMaxConcurrentRequests() > 0
+                ? properties.getMaxConcurrentRequests()
+                : connectionCapacity(primaryDataSource, replicaProperties) * properties.getRequestsPerConnection();
+        this.permits = new Semaphore(maxConcurrentRequests);
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(properties.getIdleClientTimeout())
+                .maximumSize(properties.getMaximumClients())
+                .build();
+        this.admitted = Counter.builder(ADMITTED).tag("lane", "api").register(meterRegistry);
+        this.admittedPing = Counter.builder(ADMITTED).tag("lane", "ping").register(meterRegistry);
+        this.rateLimited = Counter.builder(REJECTED).tag("reason", "rate-limit").register(meterRegistry);
+        this.overloaded = Counter.builder(REJECTED).tag("reason", "concurrency").register(meterRegistry);
+        Gauge.builder(IN_FLIGHT, permits, p -> maxConcurrentRequests - p.availablePermits())
+                .register(meterRegistry);
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    // async and error dispatches are skipped, they belong to a request that was already admitted
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!properties.isEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (PING_PATH.equals(request.getRequestURI().substring(request.getContextPath().length()))) {
+            admittedPing.increment();
+            chain.doFilter(request, response);
+            return;
+        }
+        long now = System.nanoTime();
+        long wait = buckets.get(clientKey(request),
+                key -> new TokenBucket(properties.getBurst(), properties.getRequestsPerSecond(), now)).tryAcquire(now);
+        if (wait > 0) {
+            rateLimited.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, Duration.ofNanos(wait));
+            return;
+        }
+        if (!permits.tryAcquire()) {
+            overloaded.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, properties.getRetryAfter());
+            return;
+        }
+        admitted.increment();
+        PermitRelease release = new PermitRelease();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(release);
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        try {
+            UsernamePasswordAuthenticationToken token = credentials.convert(request);
+            if (token != null) {
+                return "user:" + token.getName();
+            }
+        } catch (AuthenticationException e) {
+            // malformed credentials are rejected by Spring Security, count them against the address
+        }
+        return "address:" + request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, Duration retryAfter) {
+        long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+    }
+
+    private static int connectionCapacity(HikariDataSource primaryDataSource, ReplicaDataSourceProperties replicaProperties) {
+        int capacity = primaryDataSource.getMaximumPoolSize() > 0
+                ? primaryDataSource.getMaximumPoolSize()
+                : HIKARI_DEFAULT_POOL_SIZE;
+        for (ReplicaDataSourceProperties.Replica replica : replicaProperties.getReplicas()) {
+            capacity += replica.getMaximumPoolSize();
+        }
+        return capacity;
+    }
+
+    /**
+     * Gives the permit back once, when the request completes; async requests hold it until their
+     * final dispatch is done.
+     */
+    private class PermitRelease implements AsyncListener, Runnable {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void run() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.hillel.springapp.admission;
+
+/**
+ * Token bucket refilled lazily from the caller's clock, so idle buckets cost nothing.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long refilledAt;
+
+    public TokenBucket(double capacity, double tokensPerSecond, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.refilledAt = now;
+    }
+
+    /**
+     * Takes a token and returns 0, or returns the nanoseconds until the next token is available.
+     */
+    public synchronized long tryAcquire(long now) {
+        tokens = Math.min(capacity, tokens + Math.max(0, now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+}
@@ -0,0 +1,30 @@
+package com.hillel.springapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    private double requestsPerSecond = 20;
+
+    private int burst = 40;
+
+    /**
+     * Requests allowed in flight at once; 0 derives the limit from the connection pools.
+     */
+    private int maxConcurrentRequests = 0;
+
+    private int requestsPerConnection = 2;
+
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    private long maximumClients = 10_000;
+
+    private Duration idleClientTimeout = Duration.ofMinutes(10);
+}
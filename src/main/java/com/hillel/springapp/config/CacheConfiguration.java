@@ -0,0 +1,38 @@
+package com.hillel.springapp.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Product caches are transaction-aware: puts and evictions made inside a transaction are applied
+ * after it commits, so a rolled-back write never reaches the cache and a concurrent read cannot
+ * repopulate an evicted entry with data that is not committed yet.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCT_CATALOG = "productCatalog";
+
+    @Bean
+    public CacheManager cacheManager(ProductCacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(PRODUCTS, Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(PRODUCT_CATALOG, Caffeine.newBuilder()
+                .maximumSize(properties.getCatalogMaximumSize())
+                .expireAfterWrite(properties.getCatalogTimeToLive())
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,15 @@
+package com.hillel.springapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.security.credentials-cache")
+public class CredentialsCacheProperties {
+
+    private long maximumSize = 10_000;
+
+    private Duration timeToLive = Duration.ofMinutes(5);
+}
@@ -0,0 +1,15 @@
+package com.hillel.springapp.config;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "app.import")
+public class ImportProperties {
+
+    @Min(1)
+    private int chunkSize = 1000;
+}
@@ -0,0 +1,11 @@
+package com.hillel.springapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.orders.batch")
+public class OrderBatchProperties {
+
+    private int maxSize = 1000;
+}
@@ -0,0 +1,13 @@
+package com.hillel.springapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.orders.coalescing")
+public class OrderCoalescingProperties {
+
+    private boolean enabled = true;
+
+    private int stripes = 16;
+}
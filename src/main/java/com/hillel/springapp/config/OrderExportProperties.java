@@ -0,0 +1,16 @@
+package com.hillel.springapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.orders.export")
+public class OrderExportProperties {
+
+    private Duration timeout = Duration.ofHours(1);
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream the rows one by one, H2 needs a positive value
+    private int fetchSize = Integer.MIN_VALUE;
+}
@@ -0,0 +1,19 @@
+package com.hillel.springapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.cache.products")
+public class ProductCacheProperties {
+
+    private long maximumSize = 10_000;
+
+    private Duration timeToLive = Duration.ofMinutes(10);
+
+    private long catalogMaximumSize = 200;
+
+    private Duration catalogTimeToLive = Duration.ofMinutes(1);
+}
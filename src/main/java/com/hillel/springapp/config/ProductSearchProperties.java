@@ -0,0 +1,26 @@
+package com.hillel.springapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.products.search")
+public class ProductSearchProperties {
+
+    private int defaultLimit = 10;
+
+    private int maxLimit = 50;
+
+    private int maxCandidates = 5000;
+
+    private int loadChunkSize = 10000;
+
+    private boolean loadInBackground = false;
+
+    public int resolveLimit(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return defaultLimit;
+        }
+        return Math.min(requested, maxLimit);
+    }
+}
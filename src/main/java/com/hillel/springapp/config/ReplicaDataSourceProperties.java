@@ -0,0 +1,37 @@
+package com.hillel.springapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.datasource")
+public class ReplicaDataSourceProperties {
+
+    public enum Selection {
+        ROUND_ROBIN, LEAST_CONNECTIONS
+    }
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    private Selection selection = Selection.ROUND_ROBIN;
+
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    private long readYourWritesMaximumClients = 10_000;
+
+    @Data
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+    }
+}
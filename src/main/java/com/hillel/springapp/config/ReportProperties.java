@@ -0,0 +1,13 @@
+package com.hillel.springapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.reports")
+public class ReportProperties {
+
+    private int foldChunkSize = 1000;
+
+    private int maxTopProducts = 100;
+}
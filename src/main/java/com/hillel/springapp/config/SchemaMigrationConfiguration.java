@@ -0,0 +1,31 @@
+package com.hillel.springapp.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Flyway migrates the prod schema on startup unless {@code app.schema.migrate-on-startup} is off,
+ * as in the class-data-sharing training run, which starts without a database. The flag is read
+ * at runtime because AOT processing fixes {@code spring.flyway.enabled} at build time.
+ */
+@Configuration
+public class SchemaMigrationConfiguration {
+
+    private final Logger logger = LoggerFactory.getLogger(SchemaMigrationConfiguration.class);
+
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(
+            @Value("${app.schema.migrate-on-startup:true}") boolean migrateOnStartup) {
+        return flyway -> {
+            if (migrateOnStartup) {
+                flyway.migrate();
+            } else {
+                logger.info("Skipping schema migration on startup");
+            }
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package com.hillel.springapp.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate query cache backed by bounded, local Caffeine caches through JCache. Only query
+ * results are cached: the order and line reads behind {@code GET /orders/{id}} and its products
+ * use {@link #ORDER_QUERY_REGION}, while the product catalog is cached by Spring's
+ * {@code productCatalog} cache instead. Every region is created up front, so a region without
+ * configured bounds fails startup instead of silently growing without limit.
+ * <p>
+ * The regions and their update timestamps are local to the instance. That is safe on a single
+ * node, where every write goes through this session factory and invalidates the affected results
+ * when it commits. The order version behind ETags is never cached, so {@code 304} answers always
+ * reflect the committed order. Other instances never see these invalidations, though, and could
+ * serve a body older than its ETag for up to {@code app.cache.hibernate.query-time-to-live}, so
+ * {@code app.cache.hibernate.enabled} must be off when more than one instance writes orders.
+ */
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.cache.hibernate.enabled", havingValue = "true", matchIfMissing = true)
+public class SecondLevelCacheConfiguration {
+
+    public static final String ORDER_QUERY_REGION = "order-queries";
+
+    private final SecondLevelCacheProperties properties;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        createRegion(cacheManager, ORDER_QUERY_REGION, properties.getQueryMaximumSize(), properties.getQueryTimeToLive());
+        createRegion(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                properties.getQueryMaximumSize(), properties.getQueryTimeToLive());
+        // one entry per table; evicting it would let the query cache serve stale results
+        createRegion(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, null, null);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, Long maximumSize, Duration timeToLive) {
+        if (cacheManager.getCache(name) != null) {
+            return;
+        }
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        if (maximumSize != null) {
+            configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        }
+        if (timeToLive != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(timeToLive.toNanos()));
+        }
+        configuration.setStatisticsEnabled(true);
+        cacheManager.createCache(name, configuration);
+    }
+}
@@ -0,0 +1,17 @@
+package com.hillel.springapp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.cache.hibernate")
+public class SecondLevelCacheProperties {
+
+    private boolean enabled = true;
+
+    private long queryMaximumSize = 10_000;
+
+    private Duration queryTimeToLive = Duration.ofMinutes(5);
+}
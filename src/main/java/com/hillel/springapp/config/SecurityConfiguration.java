@@ -1,8 +1,17 @@
 package com.hillel.springapp.config;
 
+import com.hillel.springapp.security.CachingAuthenticationProvider;
+import com.hillel.springapp.security.NotifyingUserDetailsManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -12,6 +21,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.provisioning.UserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
@@ -20,12 +30,15 @@ import org.springframework.security.web.SecurityFilterChain;
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfiguration {
 
+    private final CredentialsCacheProperties credentialsCacheProperties;
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthenticationManager authenticationManager) throws Exception {
         http
                 .csrf().disable()
+                .authenticationManager(authenticationManager)
                 .authorizeRequests()
+                .requestMatchers(EndpointRequest.to(HealthEndpoint.class, PrometheusScrapeEndpoint.class)).permitAll()
                 .anyRequest().authenticated()
                 .and()
                 .httpBasic();
@@ -34,7 +47,22 @@ public class SecurityConfiguration {
     }
 
     @Bean
-    public UserDetailsService getUserDetailsService() {
+    public AuthenticationManager authenticationManager(CachingAuthenticationProvider cachingAuthenticationProvider) {
+        return new ProviderManager(cachingAuthenticationProvider);
+    }
+
+    @Bean
+    public CachingAuthenticationProvider cachingAuthenticationProvider(UserDetailsService userDetailsService) {
+        DaoAuthenticationProvider daoProvider = new DaoAuthenticationProvider();
+        daoProvider.setUserDetailsService(userDetailsService);
+        daoProvider.setPasswordEncoder(passwordEncoder());
+
+        return new CachingAuthenticationProvider(daoProvider,
+                credentialsCacheProperties.getTimeToLive(), credentialsCacheProperties.getMaximumSize());
+    }
+
+    @Bean
+    public UserDetailsManager getUserDetailsService(ApplicationEventPublisher eventPublisher) {
         UserDetails user = User.builder()
                 .username("serhii")
                 .password(passwordEncoder().encode("password"))
@@ -47,7 +75,7 @@ public class SecurityConfiguration {
                 .roles("ADMIN")
                 .build();
 
-        return new InMemoryUserDetailsManager(user, admin);
+        return new NotifyingUserDetailsManager(new InMemoryUserDetailsManager(user, admin), eventPublisher);
     }
 
     @Bean
@@ -0,0 +1,47 @@
+package com.hillel.springapp.controller;
+
+import com.hillel.springapp.dto.ProductDTO;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * ETags are weak: the same version is served as JSON, Smile or CBOR and may be gzipped, and Tomcat
+ * skips compression for responses carrying a strong ETag. Callers add {@code Vary: Accept}.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String ofVersion(long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String eTag = ifMatch.trim();
+        if (eTag.startsWith("W/")) {
+            eTag = eTag.substring(2);
+        }
+        try {
+            return Long.valueOf(eTag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid If-Match header: " + ifMatch);
+        }
+    }
+
+    static String ofProducts(Collection<ProductDTO> products, Long next) {
+        StringBuilder content = new StringBuilder(products.size() * 32);
+        for (ProductDTO product : products) {
+            content.append(product.getId()).append(':')
+                    .append(product.getCost()).append(':')
+                    .append(product.getName()).append('\n');
+        }
+        content.append(next);
+        return "W/\"" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
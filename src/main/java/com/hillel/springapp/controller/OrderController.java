@@ -1,40 +1,107 @@
 package com.hillel.springapp.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hillel.springapp.config.OrderExportProperties;
+import com.hillel.springapp.dto.BatchOrderItemDTO;
+import com.hillel.springapp.dto.BatchOrderResultDTO;
+import com.hillel.springapp.dto.CursorPageDTO;
 import com.hillel.springapp.dto.OrderDTO;
 import com.hillel.springapp.dto.ProductDTO;
+import com.hillel.springapp.entity.Order;
+import com.hillel.springapp.exception.UnknownProductException;
+import com.hillel.springapp.service.OrderLineChange;
+import com.hillel.springapp.service.OrderLineCoalescer;
+import com.hillel.springapp.service.OrderLineResult;
 import com.hillel.springapp.service.OrderService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 
 
 @RestController
 @RequestMapping("/orders")
 public class OrderController {
     private final OrderService orderService;
+    private final OrderLineCoalescer orderLineCoalescer;
+    private final ObjectMapper objectMapper;
+    private final OrderExportProperties exportProperties;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderLineCoalescer orderLineCoalescer, ObjectMapper objectMapper,
+                           OrderExportProperties exportProperties) {
         this.orderService = orderService;
+        this.orderLineCoalescer = orderLineCoalescer;
+        this.objectMapper = objectMapper;
+        this.exportProperties = exportProperties;
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<OrderDTO> getOrderById(@PathVariable Long id) {
+    public ResponseEntity<OrderDTO> getOrderById(@PathVariable Long id, WebRequest request) {
+        Long version = orderService.getOrderVersion(id);
+        if (version == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String eTag = ETags.ofVersion(version);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+        }
         OrderDTO orderDTO = orderService.getOrderById(id);
         if (orderDTO != null) {
-            return ResponseEntity.ok(orderDTO);
+            return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(orderDTO);
         } else {
             return ResponseEntity.notFound().build();
         }
     }
 
     @GetMapping
-    public ResponseEntity<List<OrderDTO>> getAllOrders() {
-        List<OrderDTO> orderDTOs = orderService.getAllOrders();
-        return ResponseEntity.ok(orderDTOs);
+    public ResponseEntity<CursorPageDTO<OrderDTO>> getAllOrders(@RequestParam(required = false) Long after,
+                                                                @RequestParam(required = false) Integer size,
+                                                                @RequestParam(required = false) String from,
+                                                                @RequestParam(required = false) String to) {
+        CursorPageDTO<OrderDTO> page = from != null || to != null
+                ? orderService.getOrdersInRange(from, to, after, size)
+                : orderService.getOrdersPage(after, size);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Streams every order as NDJSON. Only this request gets the long export timeout, other async
+     * requests keep the default {@code spring.mvc.async.request-timeout}.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> exportOrders(HttpServletResponse response) {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        return new WebAsyncTask<>(exportProperties.getTimeout().toMillis(), () -> {
+            OutputStream out = response.getOutputStream();
+            orderService.exportOrders(orderDTO -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(orderDTO));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+            return null;
+        });
     }
 
     @PostMapping
@@ -43,6 +110,12 @@ public class OrderController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchOrderResultDTO>> addOrders(@RequestBody List<BatchOrderItemDTO> items) {
+        List<BatchOrderResultDTO> results = orderService.addOrders(items);
+        return ResponseEntity.ok(results);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteOrder(@PathVariable Long id) {
         boolean deleted = orderService.deleteOrder(id);
@@ -54,32 +127,100 @@ public class OrderController {
     }
 
     @PostMapping("/{orderId}/products")
-    public ResponseEntity<OrderDTO> addProductToOrder(@PathVariable Long orderId, @RequestBody ProductDTO productDTO) {
-        OrderDTO updatedOrder = orderService.addProductToOrder(orderId, productDTO);
-        if (updatedOrder != null) {
-            return ResponseEntity.ok(updatedOrder);
-        } else {
-            return ResponseEntity.notFound().build();
+    public CompletableFuture<ResponseEntity<OrderDTO>> addProductToOrder(@PathVariable Long orderId, @RequestBody ProductDTO productDTO,
+                                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (productDTO.getId() > 0) {
+            return updateLines(orderId, Collections.singletonList(OrderLineChange.added(productDTO.getId())), ifMatch);
         }
+        OrderLineResult result = orderService.addProductToOrder(orderId, productDTO, ETags.parseVersion(ifMatch));
+        return CompletableFuture.completedFuture(toResponse(result));
+    }
+
+    @PostMapping("/{orderId}/products/{productId}")
+    public CompletableFuture<ResponseEntity<OrderDTO>> addProductToOrderById(@PathVariable Long orderId, @PathVariable Long productId,
+                                                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return updateLines(orderId, Collections.singletonList(OrderLineChange.added(productId)), ifMatch);
+    }
+
+    @PostMapping("/{orderId}/products/ids")
+    public CompletableFuture<ResponseEntity<OrderDTO>> addProductsToOrderByIds(@PathVariable Long orderId, @RequestBody List<Long> productIds,
+                                                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        List<OrderLineChange> changes = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            changes.add(OrderLineChange.added(productId));
+        }
+        return updateLines(orderId, changes, ifMatch);
     }
 
     @DeleteMapping("/{orderId}/products/{productId}")
-    public ResponseEntity<OrderDTO> deleteProductFromOrder(@PathVariable Long orderId, @PathVariable Long productId) {
-        OrderDTO updatedOrder = orderService.deleteProductFromOrder(orderId, productId);
-        if (updatedOrder != null) {
-            return ResponseEntity.ok(updatedOrder);
+    public CompletableFuture<ResponseEntity<OrderDTO>> deleteProductFromOrder(@PathVariable Long orderId, @PathVariable Long productId,
+                                                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return updateLines(orderId, Collections.singletonList(OrderLineChange.removed(productId)), ifMatch);
+    }
+
+    private CompletableFuture<ResponseEntity<OrderDTO>> updateLines(Long orderId, List<OrderLineChange> changes, String ifMatch) {
+        return orderLineCoalescer.submit(orderId, changes, ETags.parseVersion(ifMatch))
+                .thenApply(this::toResponse);
+    }
+
+    private ResponseEntity<OrderDTO> toResponse(OrderLineResult result) {
+        if (result != null) {
+            return ResponseEntity.ok().eTag(ETags.ofVersion(result.getVersion())).varyBy(HttpHeaders.ACCEPT)
+                    .body(result.getOrder());
         } else {
             return ResponseEntity.notFound().build();
         }
     }
 
     @GetMapping("/{orderId}/products")
-    public ResponseEntity<List<ProductDTO>> getAllProductsInOrder(@PathVariable Long orderId) {
+    public ResponseEntity<List<ProductDTO>> getAllProductsInOrder(@PathVariable Long orderId, WebRequest request) {
+        Long version = orderService.getOrderVersion(orderId);
+        if (version == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String eTag = ETags.ofVersion(version);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+        }
         List<ProductDTO> productDTOs = orderService.getAllProductsInOrder(orderId);
         if (productDTOs != null) {
-            return ResponseEntity.ok(productDTOs);
+            return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(productDTOs);
         } else {
             return ResponseEntity.notFound().build();
         }
     }
+
+    @ExceptionHandler(UnknownProductException.class)
+    public ResponseEntity<String> handleUnknownProduct(UnknownProductException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailure(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage());
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<String> handleDataIntegrityViolation(DataIntegrityViolationException e) {
+        if (!isIdempotencyKeyViolation(e)) {
+            throw e;
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Concurrent request with the same idempotency key, retry the batch");
+    }
+
+    private static boolean isIdempotencyKeyViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                String constraintName = ((ConstraintViolationException) cause).getConstraintName();
+                return constraintName != null
+                        && constraintName.toLowerCase(Locale.ROOT).contains(Order.IDEMPOTENCY_KEY_INDEX);
+            }
+        }
+        return false;
+    }
 }
\ No newline at end of file
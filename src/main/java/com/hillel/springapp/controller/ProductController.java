@@ -1,12 +1,22 @@
 package com.hillel.springapp.controller;
 
+import com.hillel.springapp.dto.BulkImportResultDTO;
+import com.hillel.springapp.dto.CacheRegionStatsDTO;
+import com.hillel.springapp.dto.CacheStatsDTO;
+import com.hillel.springapp.dto.CursorPageDTO;
 import com.hillel.springapp.dto.ProductDTO;
+import com.hillel.springapp.service.ProductImportService;
 import com.hillel.springapp.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.util.Collections;
 import java.util.List;
 
 @RestController
@@ -14,26 +24,43 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductImportService productImportService) {
         this.productService = productService;
+        this.productImportService = productImportService;
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id, WebRequest request) {
         ProductDTO productDTO = productService.getProductById(id);
-        if (productDTO != null) {
-            return ResponseEntity.ok(productDTO);
-        } else {
+        if (productDTO == null) {
             return ResponseEntity.notFound().build();
         }
+        String eTag = ETags.ofProducts(Collections.singletonList(productDTO), null);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(productDTO);
     }
 
     @GetMapping
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
-        List<ProductDTO> productDTOs = productService.getAllProducts();
-        return ResponseEntity.ok(productDTOs);
+    public ResponseEntity<CursorPageDTO<ProductDTO>> getAllProducts(@RequestParam(required = false) Long after,
+                                                                    @RequestParam(required = false) Integer size,
+                                                                    WebRequest request) {
+        CursorPageDTO<ProductDTO> page = productService.getProductsPage(after, size);
+        String eTag = ETags.ofProducts(page.getItems(), page.getNext());
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(page);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductDTO>> searchProducts(@RequestParam String q,
+                                                           @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.searchProducts(q, limit));
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -43,6 +70,20 @@ public class ProductController {
         return ResponseEntity.ok(createdProduct);
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkImportResultDTO> importProducts(@RequestBody List<ProductDTO> productDTOs) {
+        BulkImportResultDTO result = productImportService.importProducts(productDTOs);
+        return ResponseEntity.ok(result);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public ResponseEntity<BulkImportResultDTO> importProductsCsv(@RequestBody String csv) {
+        BulkImportResultDTO result = productImportService.importProducts(productImportService.parseCsv(csv));
+        return ResponseEntity.ok(result);
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
@@ -53,4 +94,21 @@ public class ProductController {
             return ResponseEntity.notFound().build();
         }
     }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/cache/stats")
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+        return ResponseEntity.ok(productService.getCacheStats());
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/cache/regions")
+    public ResponseEntity<List<CacheRegionStatsDTO>> getCacheRegionStats() {
+        return ResponseEntity.ok(productService.getCacheRegionStats());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
 }
\ No newline at end of file
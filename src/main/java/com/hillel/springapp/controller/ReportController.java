@@ -0,0 +1,44 @@
+package com.hillel.springapp.controller;
+
+import com.hillel.springapp.dto.DailySalesDTO;
+import com.hillel.springapp.dto.ProductSalesDTO;
+import com.hillel.springapp.service.SalesRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/reports")
+public class ReportController {
+
+    private final SalesRollupService salesRollupService;
+
+    @Autowired
+    public ReportController(SalesRollupService salesRollupService) {
+        this.salesRollupService = salesRollupService;
+    }
+
+    @GetMapping("/daily")
+    public ResponseEntity<List<DailySalesDTO>> getDailySales(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(salesRollupService.getDailySales(from, to));
+    }
+
+    @GetMapping("/top-products")
+    public ResponseEntity<List<ProductSalesDTO>> getTopProducts(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(salesRollupService.getTopProducts(from, to, limit));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/rebuild")
+    public ResponseEntity<Integer> rebuild() {
+        return ResponseEntity.ok(salesRollupService.rebuild());
+    }
+}
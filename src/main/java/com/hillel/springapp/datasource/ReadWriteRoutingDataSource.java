@@ -0,0 +1,83 @@
+package com.hillel.springapp.datasource;
+
+import com.hillel.springapp.config.ReplicaDataSourceProperties.Selection;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to one of the replicas and everything else to the primary.
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * otherwise the connection is taken before the transaction is marked read-only.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    private static final String REPLICA_PREFIX = "replica-";
+
+    private final List<DataSource> replicas;
+    private final Selection selection;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, Selection selection) {
+        this.replicas = new ArrayList<>(replicas);
+        this.selection = selection;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(REPLICA_PREFIX + i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || ReadYourWrites.isPinned()) {
+            return PRIMARY;
+        }
+        return REPLICA_PREFIX + selectReplica();
+    }
+
+    private int selectReplica() {
+        if (selection == Selection.LEAST_CONNECTIONS) {
+            int best = 0;
+            int bestActive = Integer.MAX_VALUE;
+            for (int i = 0; i < replicas.size(); i++) {
+                int active = activeConnections(replicas.get(i));
+                if (active < bestActive) {
+                    best = i;
+                    bestActive = active;
+                }
+            }
+            return best;
+        }
+        return Math.floorMod(next.getAndIncrement(), replicas.size());
+    }
+
+    private static int activeConnections(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource) {
+            HikariPoolMXBean pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+            return pool != null ? pool.getActiveConnections() : 0;
+        }
+        return 0;
+    }
+
+    public void close() {
+        for (DataSource replica : replicas) {
+            if (replica instanceof HikariDataSource) {
+                ((HikariDataSource) replica).close();
+            }
+        }
+    }
+}
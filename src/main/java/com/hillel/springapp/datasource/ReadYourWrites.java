@@ -0,0 +1,25 @@
+package com.hillel.springapp.datasource;
+
+/**
+ * Marks the current thread as belonging to a client that wrote recently, so its
+ * read-only transactions stay on the primary until the replicas have caught up.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static void pin() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        PINNED.remove();
+    }
+
+    public static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+}
@@ -0,0 +1,64 @@
+package com.hillel.springapp.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hillel.springapp.config.ReplicaDataSourceProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.security.Principal;
+
+/**
+ * Pins the read-only transactions of clients that wrote within the read-your-writes window to
+ * the primary. The pin lives on the dispatching thread, so it is dropped when an async request
+ * releases that thread and set again on the dispatch that completes the request.
+ */
+@Component
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesInterceptor(ReplicaDataSourceProperties properties) {
+        this.recentWriters = properties.getReadYourWritesWindow().isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(properties.getReadYourWritesWindow())
+                .maximumSize(properties.getReadYourWritesMaximumClients())
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String client = client(request);
+        if (client != null && recentWriters.getIfPresent(client) != null) {
+            ReadYourWrites.pin();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReadYourWrites.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReadYourWrites.clear();
+        String client = client(request);
+        if (client != null && !isSafe(request.getMethod())) {
+            recentWriters.put(client, Boolean.TRUE);
+        }
+    }
+
+    private String client(HttpServletRequest request) {
+        if (recentWriters == null) {
+            return null;
+        }
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? principal.getName() : null;
+    }
+
+    private static boolean isSafe(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+}
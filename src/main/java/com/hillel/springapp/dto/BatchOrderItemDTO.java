@@ -0,0 +1,14 @@
+package com.hillel.springapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchOrderItemDTO {
+
+    private String idempotencyKey;
+    private OrderDTO order;
+}
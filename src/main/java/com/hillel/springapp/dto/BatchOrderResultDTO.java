@@ -0,0 +1,20 @@
+package com.hillel.springapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchOrderResultDTO {
+
+    public enum Status {
+        CREATED, DUPLICATE, REJECTED
+    }
+
+    private String idempotencyKey;
+    private Status status;
+    private Long orderId;
+    private String error;
+}
@@ -0,0 +1,18 @@
+package com.hillel.springapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkImportResultDTO {
+
+    private int rows;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private List<ImportChunkDTO> chunks;
+}
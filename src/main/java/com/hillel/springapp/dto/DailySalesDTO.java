@@ -0,0 +1,17 @@
+package com.hillel.springapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailySalesDTO {
+
+    private LocalDate day;
+    private long orderCount;
+    private double revenue;
+}
@@ -0,0 +1,16 @@
+package com.hillel.springapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportChunkDTO {
+
+    private int index;
+    private int rows;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+}
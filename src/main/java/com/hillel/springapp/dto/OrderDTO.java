@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Data
@@ -15,4 +17,12 @@ public class OrderDTO {
     private String date;
     private double cost;
     private List<ProductDTO> products;
+
+    public OrderDTO(long id, String date, double cost) {
+        this(id, date, cost, new ArrayList<>());
+    }
+
+    public OrderDTO(long id, LocalDateTime date, double cost) {
+        this(id, OrderDates.format(date), cost);
+    }
 }
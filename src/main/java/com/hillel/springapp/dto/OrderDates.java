@@ -0,0 +1,58 @@
+package com.hillel.springapp.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Conversion between the {@code date} strings of the API and the UTC timestamps stored on orders.
+ * Accepts ISO date-times, ISO dates and the day-first formats found in older data.
+ */
+public final class OrderDates {
+
+    public static final LocalDateTime MIN = LocalDateTime.of(1000, 1, 1, 0, 0);
+    public static final LocalDateTime MAX = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = Arrays.asList(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("dd.MM.yyyy"),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+            DateTimeFormatter.ofPattern("yyyy/MM/dd"));
+
+    private OrderDates() {
+    }
+
+    public static String format(LocalDateTime date) {
+        return date != null ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(date) : null;
+    }
+
+    public static LocalDateTime parse(String date) {
+        if (date == null || date.trim().isEmpty()) {
+            return null;
+        }
+        String value = date.trim();
+        try {
+            return LocalDateTime.parse(value, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        } catch (DateTimeParseException ignored) {
+            // try the next format
+        }
+        try {
+            return OffsetDateTime.parse(value).withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime();
+        } catch (DateTimeParseException ignored) {
+            // try the next format
+        }
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(value, format).atStartOfDay();
+            } catch (DateTimeParseException ignored) {
+                // try the next format
+            }
+        }
+        throw new IllegalArgumentException("Unsupported date: " + date);
+    }
+}
@@ -0,0 +1,24 @@
+package com.hillel.springapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One order line of the export, or the order alone when it has no products, in which case
+ * the product fields are null.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderExportRowDTO {
+
+    private long orderId;
+    private LocalDateTime date;
+    private double cost;
+    private Long productId;
+    private String productName;
+    private Double productCost;
+}
@@ -0,0 +1,14 @@
+package com.hillel.springapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderKeyDTO {
+
+    private String idempotencyKey;
+    private long orderId;
+}
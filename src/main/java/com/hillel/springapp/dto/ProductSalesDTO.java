@@ -0,0 +1,16 @@
+package com.hillel.springapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSalesDTO {
+
+    private long productId;
+    private String name;
+    private long quantity;
+    private double revenue;
+}
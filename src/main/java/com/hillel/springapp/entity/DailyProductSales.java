@@ -0,0 +1,34 @@
+package com.hillel.springapp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "daily_product_sales", indexes = @Index(name = "ix_daily_product_sales_day", columnList = "sales_day"))
+@IdClass(DailyProductSales.Key.class)
+@Data
+public class DailyProductSales {
+    @Id
+    @Column(name = "sales_day")
+    private LocalDate salesDay;
+
+    @Id
+    private Long productId;
+
+    private long quantity;
+
+    private double revenue;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate salesDay;
+        private Long productId;
+    }
+}
@@ -0,0 +1,20 @@
+package com.hillel.springapp.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "daily_sales")
+@Data
+public class DailySales {
+    @Id
+    private LocalDate salesDay;
+
+    private long orderCount;
+
+    private double revenue;
+}
@@ -2,27 +2,44 @@ package com.hillel.springapp.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.BatchSize;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = Order.IDEMPOTENCY_KEY_INDEX, columnList = "idempotency_key", unique = true),
+        @Index(name = "ix_orders_ordered_at", columnList = "ordered_at, id")
+})
 @Data
 public class Order {
+    public static final String IDEMPOTENCY_KEY_INDEX = "ux_orders_idempotency_key";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "order_seq", allocationSize = 50)
     private Long id;
 
-    private String date;
+    @Column(name = "ordered_at")
+    private LocalDateTime date;
 
     private double cost;
 
-    @ManyToMany(cascade = CascadeType.ALL)
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
+    @Version
+    private long version;
+
+    @ManyToMany
     @JoinTable(
             name = "order_product",
             joinColumns = @JoinColumn(name = "order_id"),
             inverseJoinColumns = @JoinColumn(name = "product_id")
     )
-    private List<Product> products;
+    @BatchSize(size = 50)
+    private List<Product> products = new ArrayList<>();
 }
\ No newline at end of file
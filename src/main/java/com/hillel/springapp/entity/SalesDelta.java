@@ -0,0 +1,26 @@
+package com.hillel.springapp.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "sales_delta")
+@Data
+public class SalesDelta {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_delta_seq")
+    @SequenceGenerator(name = "sales_delta_seq", sequenceName = "sales_delta_seq", allocationSize = 50)
+    private Long id;
+
+    private LocalDate salesDay;
+
+    private Long productId;
+
+    private int orderCount;
+
+    private long quantity;
+
+    private double revenue;
+}
@@ -0,0 +1,18 @@
+package com.hillel.springapp.exception;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+@Getter
+public class UnknownProductException extends RuntimeException {
+
+    private final Set<Long> productIds;
+
+    public UnknownProductException(Collection<Long> productIds) {
+        super("Unknown product IDs: " + new TreeSet<>(productIds));
+        this.productIds = new TreeSet<>(productIds);
+    }
+}
@@ -0,0 +1,86 @@
+package com.hillel.springapp.job;
+
+import com.hillel.springapp.entity.Order;
+import com.hillel.springapp.entity.Product;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Moves the table-backed id sequences of products and orders past the ids that were assigned
+ * while both tables still used auto-increment columns. Hibernate creates those sequence tables
+ * starting at 1, so without this the first pooled insert collides with existing rows. Runs at
+ * startup and only ever raises {@code next_val}; databases with native sequences are skipped.
+ */
+@Component
+public class IdSequenceMigration implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Logger logger = LoggerFactory.getLogger(IdSequenceMigration.class);
+
+    @Autowired
+    public IdSequenceMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        seed(Product.class);
+        seed(Order.class);
+    }
+
+    private void seed(Class<?> entity) {
+        String table = entity.getAnnotation(Table.class).name();
+        SequenceGenerator generator = sequenceGenerator(entity);
+        String sequence = generator.sequenceName();
+        if (!isTable(sequence)) {
+            return;
+        }
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        if (maxId == null) {
+            return;
+        }
+        // the pooled optimizer hands out the allocationSize ids below the value it reads
+        long floor = maxId + generator.allocationSize() + 1;
+        List<Long> current = jdbcTemplate.queryForList("select next_val from " + sequence, Long.class);
+        int updated = current.isEmpty()
+                ? jdbcTemplate.update("insert into " + sequence + " (next_val) values (?)", floor)
+                : jdbcTemplate.update("update " + sequence + " set next_val = ? where next_val < ?", floor, floor);
+        if (updated > 0) {
+            logger.info("Moved {} to {}, past the highest existing id {}", sequence, floor, maxId);
+        }
+    }
+
+    private boolean isTable(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String candidate : new String[]{name, name.toUpperCase()}) {
+                try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, candidate, new String[]{"TABLE"})) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+
+    private static SequenceGenerator sequenceGenerator(Class<?> entity) {
+        try {
+            return entity.getDeclaredField("id").getAnnotation(SequenceGenerator.class);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(entity.getSimpleName() + " has no id field", e);
+        }
+    }
+}
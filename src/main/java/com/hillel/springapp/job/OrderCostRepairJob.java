@@ -0,0 +1,30 @@
+package com.hillel.springapp.job;
+
+import com.hillel.springapp.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+public class OrderCostRepairJob {
+
+    private final OrderRepository orderRepository;
+    private final Logger logger = LoggerFactory.getLogger(OrderCostRepairJob.class);
+
+    @Autowired
+    public OrderCostRepairJob(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    @Transactional
+    @Scheduled(cron = "${app.orders.cost-repair-cron}")
+    public int recalculateCosts() {
+        logger.info("Recalculating order costs");
+        int updated = orderRepository.recalculateAllCosts();
+        logger.info("Repaired costs of {} orders", updated);
+        return updated;
+    }
+}
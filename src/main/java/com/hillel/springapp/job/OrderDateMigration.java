@@ -0,0 +1,94 @@
+package com.hillel.springapp.job;
+
+import com.hillel.springapp.dto.OrderDates;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copies the free-form {@code date} strings of orders created before {@code ordered_at} existed
+ * into the typed column. Runs at startup, in chunks keyed by id, and only touches rows that
+ * have not been migrated yet. {@code app.orders.migrate-legacy-dates} is read at runtime because
+ * AOT processing fixes conditions at build time; the prod profile turns it off, so a database
+ * that still has the legacy column is migrated by starting once with the flag set.
+ */
+@Component
+public class OrderDateMigration implements ApplicationRunner {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final Logger logger = LoggerFactory.getLogger(OrderDateMigration.class);
+
+    @Autowired
+    public OrderDateMigration(JdbcTemplate jdbcTemplate,
+                              @Value("${app.orders.migrate-legacy-dates:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || !hasLegacyColumn()) {
+            return;
+        }
+        long after = 0;
+        int migrated = 0;
+        int skipped = 0;
+        while (true) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "select id, date from orders where id > ? and ordered_at is null and date is not null " +
+                            "order by id limit " + CHUNK_SIZE, after);
+            if (rows.isEmpty()) {
+                break;
+            }
+            List<Object[]> updates = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                after = ((Number) row.get("id")).longValue();
+                try {
+                    LocalDateTime date = OrderDates.parse((String) row.get("date"));
+                    if (date != null) {
+                        updates.add(new Object[]{Timestamp.valueOf(date), after});
+                    }
+                } catch (IllegalArgumentException e) {
+                    skipped++;
+                    logger.warn("Cannot migrate date of order {}: {}", after, e.getMessage());
+                }
+            }
+            jdbcTemplate.batchUpdate("update orders set ordered_at = ? where id = ?", updates);
+            migrated += updates.size();
+        }
+        if (migrated > 0 || skipped > 0) {
+            logger.info("Migrated dates of {} orders, {} could not be parsed", migrated, skipped);
+        }
+    }
+
+    private boolean hasLegacyColumn() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String[] names : new String[][]{{"orders", "date"}, {"ORDERS", "DATE"}}) {
+                try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, names[0], names[1])) {
+                    if (columns.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+}
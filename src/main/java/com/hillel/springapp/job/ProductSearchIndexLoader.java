@@ -0,0 +1,72 @@
+package com.hillel.springapp.job;
+
+import com.hillel.springapp.config.ProductSearchProperties;
+import com.hillel.springapp.dto.ProductDTO;
+import com.hillel.springapp.repository.ProductRepository;
+import com.hillel.springapp.search.ProductSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills the product search index at startup, reading the catalog in chunks keyed by id.
+ * Products added or deleted afterwards are indexed by {@code ProductService} as they change.
+ * With {@code app.products.search.load-in-background} readiness does not wait for the load,
+ * and searches only see the part of the catalog indexed so far; products changed while it runs
+ * keep the state {@code ProductService} gave them rather than the one read by the load.
+ */
+@Component
+public class ProductSearchIndexLoader implements ApplicationRunner {
+
+    private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSearchProperties productSearchProperties;
+    private final Logger logger = LoggerFactory.getLogger(ProductSearchIndexLoader.class);
+
+    @Autowired
+    public ProductSearchIndexLoader(ProductRepository productRepository, ProductSearchIndex productSearchIndex,
+                                    ProductSearchProperties productSearchProperties) {
+        this.productRepository = productRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.productSearchProperties = productSearchProperties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (productSearchProperties.isLoadInBackground()) {
+            Thread loader = new Thread(this::load, "product-search-loader");
+            loader.setDaemon(true);
+            loader.start();
+        } else {
+            load();
+        }
+    }
+
+    private void load() {
+        int chunkSize = productSearchProperties.getLoadChunkSize();
+        long started = System.nanoTime();
+        long after = 0;
+        List<ProductDTO> chunk;
+        productSearchIndex.startLoad();
+        try {
+            do {
+                chunk = productRepository.findDtoChunk(after, PageRequest.of(0, chunkSize));
+                productSearchIndex.addLoaded(chunk);
+                if (!chunk.isEmpty()) {
+                    after = chunk.get(chunk.size() - 1).getId();
+                }
+            } while (chunk.size() == chunkSize);
+        } finally {
+            productSearchIndex.finishLoad();
+        }
+        logger.info("Indexed {} products for search in {} ms", productSearchIndex.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+}
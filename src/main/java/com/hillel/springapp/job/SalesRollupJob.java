@@ -0,0 +1,22 @@
+package com.hillel.springapp.job;
+
+import com.hillel.springapp.service.SalesRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SalesRollupJob {
+
+    private final SalesRollupService salesRollupService;
+
+    @Autowired
+    public SalesRollupJob(SalesRollupService salesRollupService) {
+        this.salesRollupService = salesRollupService;
+    }
+
+    @Scheduled(fixedDelayString = "${app.reports.fold-delay}")
+    public int foldDeltas() {
+        return salesRollupService.foldDeltas();
+    }
+}
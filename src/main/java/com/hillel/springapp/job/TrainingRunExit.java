@@ -0,0 +1,33 @@
+package com.hillel.springapp.job;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ends a class-data-sharing training run (the {@code training} profile) once the context is
+ * refreshed, so the JVM writes its archive with every class startup needs and nothing else.
+ * The property is read at runtime because AOT processing fixes conditions at build time.
+ */
+@Component
+public class TrainingRunExit implements ApplicationListener<ContextRefreshedEvent> {
+
+    private final boolean exitAfterRefresh;
+    private final Logger logger = LoggerFactory.getLogger(TrainingRunExit.class);
+
+    public TrainingRunExit(@Value("${app.startup.exit-after-refresh:false}") boolean exitAfterRefresh) {
+        this.exitAfterRefresh = exitAfterRefresh;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (exitAfterRefresh && event.getApplicationContext().getParent() == null) {
+            logger.info("Training run finished, exiting");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+}
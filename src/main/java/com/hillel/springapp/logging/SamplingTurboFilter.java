@@ -0,0 +1,63 @@
+package com.hillel.springapp.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets through only every n-th INFO/DEBUG/TRACE event of the configured loggers.
+ * WARN and ERROR are never sampled. Rates are given as {@code logger=n} pairs separated
+ * by commas, e.g. {@code com.hillel.springapp.service.OrderService=10}.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private Map<String, Sampler> samplers = new HashMap<>();
+
+    public void setRates(String rates) {
+        Map<String, Sampler> parsed = new HashMap<>();
+        for (String entry : rates.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                continue;
+            }
+            int rate = Integer.parseInt(parts[1].trim());
+            if (rate > 1) {
+                parsed.put(parts[0].trim(), new Sampler(rate));
+            }
+        }
+        samplers = parsed;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (samplers.isEmpty() || level == null || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        Sampler sampler = samplers.get(logger.getName());
+        // isEnabledFor would consult the turbo filters again and recurse
+        if (sampler == null || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        return sampler.next() ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private static final class Sampler {
+
+        private final int rate;
+        private final AtomicLong counter = new AtomicLong();
+
+        private Sampler(int rate) {
+            this.rate = rate;
+        }
+
+        private boolean next() {
+            return counter.getAndIncrement() % rate == 0;
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.hillel.springapp.mapper;
 
 import com.hillel.springapp.dto.OrderDTO;
+import com.hillel.springapp.dto.OrderDates;
+import com.hillel.springapp.dto.ProductDTO;
 import com.hillel.springapp.entity.Order;
+import com.hillel.springapp.entity.Product;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Component
@@ -12,7 +17,20 @@ import java.util.List;
 public interface OrderMapper {
     OrderDTO orderToOrderDTO(Order order);
 
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "idempotencyKey", ignore = true)
     Order orderDTOToOrder(OrderDTO orderDTO);
 
+    @Mapping(target = "version", ignore = true)
+    Product productDTOToProduct(ProductDTO productDTO);
+
     List<OrderDTO> ordersToOrderDTOs(List<Order> orders);
+
+    default String dateToString(LocalDateTime date) {
+        return OrderDates.format(date);
+    }
+
+    default LocalDateTime stringToDate(String date) {
+        return OrderDates.parse(date);
+    }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.hillel.springapp.mapper;
 import com.hillel.springapp.dto.ProductDTO;
 import com.hillel.springapp.entity.Product;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -12,6 +13,7 @@ import java.util.List;
 public interface ProductMapper {
     ProductDTO productToProductDTO(Product product);
 
+    @Mapping(target = "version", ignore = true)
     Product productDTOToProduct(ProductDTO productDTO);
 
     List<ProductDTO> productsToProductDTOs(List<Product> products);
@@ -0,0 +1,64 @@
+package com.hillel.springapp.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records the SQL statements of each request. Async requests keep their counter in a request
+ * attribute, so statements of the first dispatch, of the threads the work was handed to and of
+ * the final dispatch all add up, whichever threads ran them.
+ */
+@Component
+public class RequestMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String SQL_STATEMENTS = "app.http.sql.statements";
+
+    private static final String COUNTER_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".counter";
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object counter = request.getAttribute(COUNTER_ATTRIBUTE);
+        if (counter instanceof AtomicInteger) {
+            SqlStatementCounter.attach((AtomicInteger) counter);
+        } else {
+            SqlStatementCounter.reset();
+            request.setAttribute(COUNTER_ATTRIBUTE, SqlStatementCounter.capture());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStatementCounter.reset();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object counter = request.getAttribute(COUNTER_ATTRIBUTE);
+        SqlStatementCounter.reset();
+        if (!(handler instanceof HandlerMethod) || !(counter instanceof AtomicInteger)) {
+            return;
+        }
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        DistributionSummary.builder(SQL_STATEMENTS)
+                .description("SQL statements executed per request")
+                .baseUnit("statements")
+                .tag("controller", handlerMethod.getBeanType().getSimpleName())
+                .tag("method", handlerMethod.getMethod().getName())
+                .register(meterRegistry)
+                .record(((AtomicInteger) counter).get());
+    }
+}
@@ -0,0 +1,60 @@
+package com.hillel.springapp.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, so a request can
+ * report how many round trips it made. Registered through
+ * {@code hibernate.session_factory.statement_inspector}. Work handed to another thread
+ * counts towards the request when that thread {@link #attach(AtomicInteger) attaches} the
+ * counter {@link #capture() captured} on the request thread.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<AtomicInteger> COUNT = ThreadLocal.withInitial(AtomicInteger::new);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get().incrementAndGet();
+        return sql;
+    }
+
+    /**
+     * Starts a new count on the current thread, leaving captured counters alone.
+     */
+    public static void reset() {
+        COUNT.set(new AtomicInteger());
+    }
+
+    public static int current() {
+        return COUNT.get().get();
+    }
+
+    public static AtomicInteger capture() {
+        return COUNT.get();
+    }
+
+    public static void attach(AtomicInteger counter) {
+        COUNT.set(counter);
+    }
+
+    /**
+     * Counts the statements of the decorated task towards the thread that submitted it.
+     */
+    public static TaskDecorator propagating() {
+        return task -> {
+            AtomicInteger counter = capture();
+            return () -> {
+                attach(counter);
+                try {
+                    task.run();
+                } finally {
+                    reset();
+                }
+            };
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package com.hillel.springapp.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records how long after JVM start the application became ready and served its first request.
+ * Unlike Spring Boot's {@code application.ready.time}, both include JVM startup and class loading,
+ * so they show the effect of AOT processing and the class-data-sharing archive.
+ */
+@Component
+public class StartupTimeRecorder implements HandlerInterceptor {
+
+    public static final String READY_TIME = "app.startup.ready.time";
+    public static final String FIRST_REQUEST_TIME = "app.startup.first.request.time";
+
+    private final MeterRegistry meterRegistry;
+    private final Tags tags;
+    private final AtomicBoolean firstRequestSeen = new AtomicBoolean();
+    private final Logger logger = LoggerFactory.getLogger(StartupTimeRecorder.class);
+
+    public StartupTimeRecorder(MeterRegistry meterRegistry, Environment environment) {
+        this.meterRegistry = meterRegistry;
+        String[] profiles = environment.getActiveProfiles();
+        this.tags = Tags.of(
+                "profiles", profiles.length > 0 ? StringUtils.arrayToCommaDelimitedString(profiles) : "default",
+                "aot", String.valueOf(AotDetector.useGeneratedArtifacts()),
+                "cds", String.valueOf(usesSharedArchive()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        register(READY_TIME, "Time from JVM start until the application is ready", uptime);
+        logger.info("Ready {} ms after JVM start ({})", uptime, tags);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!firstRequestSeen.get() && firstRequestSeen.compareAndSet(false, true)) {
+            long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+            register(FIRST_REQUEST_TIME, "Time from JVM start until the first request is handled", uptime);
+            logger.info("First request {} ms after JVM start", uptime);
+        }
+        return true;
+    }
+
+    private void register(String name, String description, long millis) {
+        TimeGauge.builder(name, () -> millis, TimeUnit.MILLISECONDS)
+                .description(description)
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    private static boolean usesSharedArchive() {
+        for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (argument.startsWith("-XX:SharedArchiveFile")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
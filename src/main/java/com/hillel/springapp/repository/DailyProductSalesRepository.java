@@ -0,0 +1,47 @@
+package com.hillel.springapp.repository;
+
+import com.hillel.springapp.dto.ProductSalesDTO;
+import com.hillel.springapp.entity.DailyProductSales;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DailyProductSalesRepository extends JpaRepository<DailyProductSales, DailyProductSales.Key> {
+
+    @Query("select new com.hillel.springapp.dto.ProductSalesDTO(d.productId, p.name, sum(d.quantity), sum(d.revenue)) " +
+            "from DailyProductSales d join Product p on p.id = d.productId " +
+            "where d.salesDay between :from and :to group by d.productId, p.name " +
+            "having sum(d.quantity) > 0 order by sum(d.quantity) desc, d.productId")
+    List<ProductSalesDTO> findTopProducts(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select d from DailyProductSales d where d.salesDay in :days and d.productId in :productIds")
+    List<DailyProductSales> findAllForUpdate(@Param("days") Collection<LocalDate> days,
+                                             @Param("productIds") Collection<Long> productIds);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "daily_product_sales"))
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "delete from daily_product_sales", nativeQuery = true)
+    int deleteAllRollups();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "daily_product_sales"))
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "insert into daily_product_sales (sales_day, product_id, quantity, revenue) " +
+            "select cast(o.ordered_at as date), op.product_id, count(*), sum(p.cost) from orders o " +
+            "join order_product op on op.order_id = o.id join products p on p.id = op.product_id " +
+            "where o.ordered_at is not null group by cast(o.ordered_at as date), op.product_id", nativeQuery = true)
+    int rebuildRollups();
+}
@@ -0,0 +1,42 @@
+package com.hillel.springapp.repository;
+
+import com.hillel.springapp.dto.DailySalesDTO;
+import com.hillel.springapp.entity.DailySales;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DailySalesRepository extends JpaRepository<DailySales, LocalDate> {
+
+    @Query("select new com.hillel.springapp.dto.DailySalesDTO(d.salesDay, d.orderCount, d.revenue) from DailySales d " +
+            "where d.salesDay between :from and :to order by d.salesDay")
+    List<DailySalesDTO> findDtoRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select d from DailySales d where d.salesDay in :days")
+    List<DailySales> findAllForUpdate(@Param("days") Collection<LocalDate> days);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "daily_sales"))
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "delete from daily_sales", nativeQuery = true)
+    int deleteAllRollups();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "daily_sales"))
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "insert into daily_sales (sales_day, order_count, revenue) " +
+            "select cast(o.ordered_at as date), count(*), sum(o.cost) from orders o " +
+            "where o.ordered_at is not null group by cast(o.ordered_at as date)", nativeQuery = true)
+    int rebuildRollups();
+}
@@ -1,19 +1,157 @@
 package com.hillel.springapp.repository;
 
+import com.hillel.springapp.dto.OrderDTO;
+import com.hillel.springapp.dto.OrderKeyDTO;
+import com.hillel.springapp.dto.OrderLineDTO;
+import com.hillel.springapp.dto.ProductDTO;
 import com.hillel.springapp.entity.Order;
 import com.hillel.springapp.entity.Product;
+import jakarta.persistence.QueryHint;
 import lombok.NonNull;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import static com.hillel.springapp.config.SecondLevelCacheConfiguration.ORDER_QUERY_REGION;
+
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ORDER_QUERY_REGION)
+    })
+    @EntityGraph(attributePaths = "products")
+    Optional<Order> findWithProductsById(Long id);
+
+    // never cached, conditional requests must compare against the committed version
+    @Query("select o.version from Order o where o.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("select new com.hillel.springapp.dto.OrderKeyDTO(o.idempotencyKey, o.id) from Order o " +
+            "where o.idempotencyKey in :keys")
+    List<OrderKeyDTO> findKeysByIdempotencyKeys(@Param("keys") Collection<String> keys);
+
+    @Query("select new com.hillel.springapp.dto.OrderDTO(o.id, o.date, o.cost) from Order o order by o.id")
+    List<OrderDTO> findAllDtos();
+
+    @Query("select new com.hillel.springapp.dto.OrderDTO(o.id, o.date, o.cost) from Order o " +
+            "where o.id > :after order by o.id")
+    List<OrderDTO> findDtoPage(@Param("after") Long after, Pageable pageable);
+
+    @Query("select o.date from Order o where o.id = :id")
+    Optional<LocalDateTime> findDateById(@Param("id") Long id);
+
+    @Query("select new com.hillel.springapp.dto.OrderDTO(o.id, o.date, o.cost) from Order o " +
+            "where o.date >= :from and o.date < :to order by o.date, o.id")
+    List<OrderDTO> findDtoRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Pageable pageable);
+
+    @Query("select new com.hillel.springapp.dto.OrderDTO(o.id, o.date, o.cost) from Order o " +
+            "where o.date >= :from and o.date < :to and o.date >= :afterDate " +
+            "and (o.date > :afterDate or o.id > :afterId) order by o.date, o.id")
+    List<OrderDTO> findDtoRangeAfter(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                     @Param("afterDate") LocalDateTime afterDate, @Param("afterId") Long afterId,
+                                     Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ORDER_QUERY_REGION)
+    })
+    @Query("select new com.hillel.springapp.dto.OrderLineDTO(o.id, p.id, p.name, p.cost) from Order o " +
+            "join o.products p where o.id in :orderIds")
+    List<OrderLineDTO> findLinesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    @Query("select new com.hillel.springapp.dto.OrderLineDTO(o.id, p.id, p.name, p.cost) from Order o " +
+            "join o.products p")
+    List<OrderLineDTO> findAllLines();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ORDER_QUERY_REGION)
+    })
+    @Query("select new com.hillel.springapp.dto.ProductDTO(p.id, p.name, p.cost) from Order o " +
+            "join o.products p where o.id = :orderId")
+    List<ProductDTO> findProductDtosByOrderId(@Param("orderId") Long orderId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "order_product"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "orders")
+    })
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "insert into order_product (order_id, product_id) values (:orderId, :productId)", nativeQuery = true)
+    int insertOrderProduct(@Param("orderId") Long orderId, @Param("productId") Long productId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "order_product"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "orders")
+    })
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "delete from order_product where order_id = :orderId and product_id = :productId", nativeQuery = true)
+    int deleteOrderProduct(@Param("orderId") Long orderId, @Param("productId") Long productId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "order_product"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "orders")
+    })
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "delete from order_product where order_id = :orderId", nativeQuery = true)
+    int deleteAllOrderProducts(@Param("orderId") Long orderId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "orders"))
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "delete from orders where id = :id", nativeQuery = true)
+    int deleteOrderById(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.version = o.version + 1 where o.id = :orderId")
+    int touchVersion(@Param("orderId") Long orderId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.version = o.version + 1 where o.id = :orderId and o.version = :version")
+    int claimVersion(@Param("orderId") Long orderId, @Param("version") long version);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.cost = o.cost + :delta, o.version = o.version + 1 where o.id = :orderId")
+    int adjustCost(@Param("orderId") Long orderId, @Param("delta") double delta);
+
+    /**
+     * Leaves the version alone, the caller has already claimed the order.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.cost = o.cost + :delta where o.id = :orderId")
+    int adjustClaimedCost(@Param("orderId") Long orderId, @Param("delta") double delta);
+
+    /**
+     * Leaves the version alone, the caller has already claimed the order.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "orders"))
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update orders set cost = cost + :quantity * (select p.cost from products p where p.id = :productId) " +
+            "where id = :orderId", nativeQuery = true)
+    int adjustClaimedCostByProduct(@Param("orderId") Long orderId, @Param("productId") Long productId,
+                            @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.cost = 0, o.version = o.version + 1 where o.id = :orderId")
+    int resetCost(@Param("orderId") Long orderId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "orders"))
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update orders set cost = coalesce((select sum(p.cost) from order_product op " +
+            "join products p on p.id = op.product_id where op.order_id = orders.id), 0), version = version + 1 " +
+            "where cost <> coalesce((select sum(p.cost) from order_product op " +
+            "join products p on p.id = op.product_id where op.order_id = orders.id), 0)", nativeQuery = true)
+    int recalculateAllCosts();
 }
\ No newline at end of file
@@ -1,10 +1,40 @@
 package com.hillel.springapp.repository;
 
+import com.hillel.springapp.dto.ProductDTO;
 import com.hillel.springapp.entity.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    @Query("select new com.hillel.springapp.dto.ProductDTO(p.id, p.name, p.cost) from Product p where p.id = :id")
+    Optional<ProductDTO> findDtoById(@Param("id") Long id);
+
+    @Query("select new com.hillel.springapp.dto.ProductDTO(p.id, p.name, p.cost) from Product p order by p.id")
+    List<ProductDTO> findAllDtos();
+
+    @Query("select new com.hillel.springapp.dto.ProductDTO(p.id, p.name, p.cost) from Product p " +
+            "where p.id > :after order by p.id")
+    List<ProductDTO> findDtoPage(@Param("after") Long after, Pageable pageable);
+
+    @Query("select new com.hillel.springapp.dto.ProductDTO(p.id, p.name, p.cost) from Product p " +
+            "where p.id > :after order by p.id")
+    List<ProductDTO> findDtoChunk(@Param("after") Long after, Pageable pageable);
+
+    @Query("select new com.hillel.springapp.dto.ProductDTO(p.id, p.name, p.cost) from Product p where p.id in :ids")
+    List<ProductDTO> findDtosByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Product p where p.id = :id")
+    int deleteProductById(@Param("id") Long id);
 }
\ No newline at end of file
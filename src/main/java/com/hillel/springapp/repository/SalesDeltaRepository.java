@@ -0,0 +1,43 @@
+package com.hillel.springapp.repository;
+
+import com.hillel.springapp.entity.SalesDelta;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SalesDeltaRepository extends JpaRepository<SalesDelta, Long> {
+
+    /**
+     * Lock timeout Hibernate renders as {@code SKIP LOCKED}.
+     */
+    String SKIP_LOCKED = "-2";
+
+    /**
+     * Locks the oldest deltas with {@code FOR UPDATE SKIP LOCKED}, so folds running on other
+     * instances claim disjoint chunks instead of folding the same deltas twice.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = SKIP_LOCKED))
+    @Query("select d from SalesDelta d order by d.id")
+    List<SalesDelta> claimOldest(Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from SalesDelta d where d.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from SalesDelta d")
+    int deleteAllDeltas();
+}
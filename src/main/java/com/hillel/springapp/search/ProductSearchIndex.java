@@ -0,0 +1,497 @@
+package com.hillel.springapp.search;
+
+import com.hillel.springapp.dto.ProductDTO;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory type-ahead index over product names. Lower-cased names are split into trigrams and
+ * the one- and two-character prefixes of every word; each gram maps to a sorted posting list of
+ * slot numbers. Queries of three or more characters intersect the posting lists of all their
+ * trigrams, starting from the shortest, and verify the survivors with a substring check; shorter
+ * queries match word prefixes. Matches rank as exact name, name prefix, word prefix, then plain
+ * substring, shorter names first. Ranking stops after {@code maxCandidates} verified matches,
+ * which bounds the latency of unselective queries against large catalogs.
+ * <p>
+ * While the startup load runs, ids that are added or removed through the regular methods are
+ * remembered, and loaded chunks skip them: a chunk read before a delete committed must not bring
+ * the deleted product back, nor overwrite a rename with the name it had when the chunk was read.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final int EXACT = 0;
+    private static final int NAME_PREFIX = 1;
+    private static final int WORD_PREFIX = 2;
+    private static final int SUBSTRING = 3;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private LongIntMap slotsById;
+    private long[] ids;
+    private String[] keys;
+    private String[] names;
+    private double[] costs;
+    private int slotCount;
+    private int size;
+
+    private LongIntMap gramOrdinals;
+    private int[][] postings;
+    private int[] postingSizes;
+    private int gramCount;
+
+    private LongIntMap changedDuringLoad;
+
+    public ProductSearchIndex() {
+        reset();
+    }
+
+    public void add(ProductDTO product) {
+        addAll(Collections.singletonList(product));
+    }
+
+    /**
+     * Indexes the given products, replacing earlier entries with the same id.
+     */
+    public void addAll(Collection<ProductDTO> products) {
+        index(products, false);
+    }
+
+    /**
+     * Starts remembering the ids that change until {@link #finishLoad()}.
+     */
+    public void startLoad() {
+        lock.writeLock().lock();
+        try {
+            changedDuringLoad = new LongIntMap();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a chunk read by the startup load, skipping products changed since it started.
+     */
+    public void addLoaded(Collection<ProductDTO> products) {
+        index(products, true);
+    }
+
+    public void finishLoad() {
+        lock.writeLock().lock();
+        try {
+            changedDuringLoad = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes the products once the surrounding transaction commits, or right away outside of one,
+     * so rolled back inserts never become searchable.
+     */
+    public void addAllAfterCommit(Collection<ProductDTO> products) {
+        afterCommit(() -> addAll(products));
+    }
+
+    /**
+     * Removes the product once the surrounding transaction commits, or right away outside of one.
+     */
+    public void removeAfterCommit(long id) {
+        afterCommit(() -> remove(id));
+    }
+
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            markChanged(id);
+            int slot = slotsById.get(id);
+            if (slot < 0) {
+                return false;
+            }
+            removeSlot(slot);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(Collection<ProductDTO> products, boolean loaded) {
+        lock.writeLock().lock();
+        try {
+            for (ProductDTO product : products) {
+                if (product.getId() <= 0) {
+                    throw new IllegalArgumentException("Product must be saved before it is indexed");
+                }
+                if (loaded) {
+                    if (changedDuringLoad != null && changedDuringLoad.get(product.getId()) >= 0) {
+                        continue;
+                    }
+                } else {
+                    markChanged(product.getId());
+                }
+                int existing = slotsById.get(product.getId());
+                if (existing >= 0) {
+                    removeSlot(existing);
+                }
+                if (product.getName() != null) {
+                    addSlot(product.getId(), product.getName(), product.getCost());
+                }
+            }
+            // removed slots are never reused, so reclaim them once they dominate
+            if (slotCount > 2 * size + INITIAL_CAPACITY) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<ProductDTO> search(String query, int limit, int maxCandidates) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        long[] grams = q.length() >= 3 ? trigrams(q) : new long[]{gram(q, 0, q.length())};
+        lock.readLock().lock();
+        try {
+            int[] ordinals = new int[grams.length];
+            for (int g = 0; g < grams.length; g++) {
+                int ordinal = gramOrdinals.get(grams[g]);
+                if (ordinal < 0 || postingSizes[ordinal] == 0) {
+                    return Collections.emptyList();
+                }
+                // insertion sort by posting size, queries have only a handful of grams
+                int position = g;
+                for (; position > 0 && postingSizes[ordinals[position - 1]] > postingSizes[ordinal]; position--) {
+                    ordinals[position] = ordinals[position - 1];
+                }
+                ordinals[position] = ordinal;
+            }
+            int[] candidates = postings[ordinals[0]];
+            int candidateCount = postingSizes[ordinals[0]];
+            int[] cursors = new int[ordinals.length];
+            long[] best = new long[Math.max(0, Math.min(limit, Math.min(candidateCount, maxCandidates)))];
+            int found = 0;
+            int verified = 0;
+            candidates:
+            for (int i = 0; i < candidateCount && verified < maxCandidates; i++) {
+                int slot = candidates[i];
+                for (int g = 1; g < ordinals.length; g++) {
+                    int size = postingSizes[ordinals[g]];
+                    cursors[g] = seek(postings[ordinals[g]], cursors[g], size, slot);
+                    if (cursors[g] == size) {
+                        break candidates;
+                    }
+                    if (postings[ordinals[g]][cursors[g]] != slot) {
+                        continue candidates;
+                    }
+                }
+                String key = keys[slot];
+                int rank = rank(key, q);
+                if (rank < 0) {
+                    continue;
+                }
+                verified++;
+                long score = ((long) rank << 56) | ((long) Math.min(key.length(), 0xFFFFFF) << 32) | slot;
+                if (found < best.length || (found > 0 && score < best[found - 1])) {
+                    found = insert(best, found, score);
+                }
+            }
+            List<ProductDTO> results = new ArrayList<>(found);
+            for (int i = 0; i < found; i++) {
+                int slot = (int) best[i];
+                results.add(new ProductDTO(ids[slot], names[slot], costs[slot]));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void markChanged(long id) {
+        if (changedDuringLoad != null && id != 0) {
+            changedDuringLoad.put(id, 0);
+        }
+    }
+
+    private void addSlot(long id, String name, double cost) {
+        int slot = slotCount++;
+        if (slot == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            names = Arrays.copyOf(names, capacity);
+            costs = Arrays.copyOf(costs, capacity);
+        }
+        String key = normalize(name);
+        ids[slot] = id;
+        keys[slot] = key;
+        names[slot] = name;
+        costs[slot] = cost;
+        slotsById.put(id, slot);
+        size++;
+        for (long gram : grams(key)) {
+            int ordinal = gramOrdinals.get(gram);
+            if (ordinal < 0) {
+                ordinal = gramCount++;
+                if (ordinal == postings.length) {
+                    postings = Arrays.copyOf(postings, ordinal * 2);
+                    postingSizes = Arrays.copyOf(postingSizes, ordinal * 2);
+                }
+                postings[ordinal] = new int[4];
+                gramOrdinals.put(gram, ordinal);
+            }
+            int count = postingSizes[ordinal];
+            if (count == postings[ordinal].length) {
+                postings[ordinal] = Arrays.copyOf(postings[ordinal], count * 2);
+            }
+            // slots only grow, so appending keeps the posting list sorted
+            postings[ordinal][count] = slot;
+            postingSizes[ordinal] = count + 1;
+        }
+    }
+
+    private void removeSlot(int slot) {
+        for (long gram : grams(keys[slot])) {
+            int ordinal = gramOrdinals.get(gram);
+            int count = postingSizes[ordinal];
+            int index = Arrays.binarySearch(postings[ordinal], 0, count, slot);
+            if (index >= 0) {
+                System.arraycopy(postings[ordinal], index + 1, postings[ordinal], index, count - index - 1);
+                postingSizes[ordinal] = count - 1;
+            }
+        }
+        slotsById.remove(ids[slot]);
+        keys[slot] = null;
+        names[slot] = null;
+        size--;
+    }
+
+    private void compact() {
+        long[] liveIds = ids;
+        String[] liveNames = names;
+        double[] liveCosts = costs;
+        int liveSlots = slotCount;
+        reset();
+        for (int slot = 0; slot < liveSlots; slot++) {
+            if (liveNames[slot] != null) {
+                addSlot(liveIds[slot], liveNames[slot], liveCosts[slot]);
+            }
+        }
+    }
+
+    private void reset() {
+        slotsById = new LongIntMap();
+        ids = new long[INITIAL_CAPACITY];
+        keys = new String[INITIAL_CAPACITY];
+        names = new String[INITIAL_CAPACITY];
+        costs = new double[INITIAL_CAPACITY];
+        slotCount = 0;
+        size = 0;
+        gramOrdinals = new LongIntMap();
+        postings = new int[INITIAL_CAPACITY][];
+        postingSizes = new int[INITIAL_CAPACITY];
+        gramCount = 0;
+    }
+
+    /**
+     * Returns the first index at or after {@code from} whose slot is not below {@code slot},
+     * galloping ahead before the binary search since intersections usually skip long runs.
+     */
+    private static int seek(int[] posting, int from, int size, int slot) {
+        int bound = from;
+        int step = 1;
+        while (bound < size && posting[bound] < slot) {
+            from = bound + 1;
+            bound += step;
+            step <<= 1;
+        }
+        int index = Arrays.binarySearch(posting, from, Math.min(bound + 1, size), slot);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static int insert(long[] best, int found, long score) {
+        int position = -Arrays.binarySearch(best, 0, found, score) - 1;
+        int moved = Math.min(found, best.length - 1) - position;
+        if (moved > 0) {
+            System.arraycopy(best, position, best, position + 1, moved);
+        }
+        best[position] = score;
+        return Math.min(found + 1, best.length);
+    }
+
+    private static int rank(String key, String q) {
+        int index = key.indexOf(q);
+        if (index < 0) {
+            return -1;
+        }
+        if (index == 0) {
+            return key.length() == q.length() ? EXACT : NAME_PREFIX;
+        }
+        for (; index >= 0; index = key.indexOf(q, index + 1)) {
+            if (!Character.isLetterOrDigit(key.charAt(index - 1))) {
+                return WORD_PREFIX;
+            }
+        }
+        return SUBSTRING;
+    }
+
+    private static long[] grams(String key) {
+        long[] grams = new long[Math.max(0, key.length() - 2) + 2 * key.length()];
+        int count = 0;
+        for (int i = 0; i + 3 <= key.length(); i++) {
+            grams[count++] = gram(key, i, 3);
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (Character.isLetterOrDigit(key.charAt(i)) && (i == 0 || !Character.isLetterOrDigit(key.charAt(i - 1)))) {
+                grams[count++] = gram(key, i, 1);
+                if (i + 1 < key.length()) {
+                    grams[count++] = gram(key, i, 2);
+                }
+            }
+        }
+        return distinct(grams, count);
+    }
+
+    private static long[] trigrams(String q) {
+        long[] grams = new long[q.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = gram(q, i, 3);
+        }
+        return distinct(grams, grams.length);
+    }
+
+    private static long[] distinct(long[] grams, int count) {
+        Arrays.sort(grams, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || grams[i] != grams[unique - 1]) {
+                grams[unique++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, unique);
+    }
+
+    /**
+     * Packs up to three UTF-16 chars and the gram length into a non-zero long.
+     */
+    private static long gram(String key, int start, int length) {
+        long gram = length;
+        for (int i = start; i < start + length; i++) {
+            gram = (gram << 16) | key.charAt(i);
+        }
+        return gram;
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Open-addressing map from non-zero {@code long} keys to {@code int} values, -1 when absent.
+     */
+    static final class LongIntMap {
+
+        private long[] keys = new long[16];
+        private int[] values = new int[16];
+        private int size;
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = index(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return -1;
+        }
+
+        void put(long key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int i = index(key, mask);
+            while (keys[i] != 0 && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == 0) {
+                size++;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        void remove(long key) {
+            int mask = keys.length - 1;
+            int hole = index(key, mask);
+            while (keys[hole] != key) {
+                if (keys[hole] == 0) {
+                    return;
+                }
+                hole = (hole + 1) & mask;
+            }
+            // shift later entries of the probe chain back so lookups never stop at the hole
+            for (int i = (hole + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+                int home = index(keys[i], mask);
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    keys[hole] = keys[i];
+                    values[hole] = values[i];
+                    hole = i;
+                }
+            }
+            keys[hole] = 0;
+            size--;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[capacity];
+            values = new int[capacity];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int index(long key, int mask) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+    }
+}
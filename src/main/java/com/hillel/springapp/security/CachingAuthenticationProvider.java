@@ -0,0 +1,89 @@
+package com.hillel.springapp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.context.ApplicationListener;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Remembers successful username/password authentications for a short time so repeated
+ * HTTP Basic requests skip the BCrypt check. Entries are keyed by an HMAC of the
+ * credentials under a per-process random key, so plain passwords are never kept in memory.
+ * A {@link CredentialsChangedEvent} drops the user's entries at once; changes made by another
+ * instance are only picked up when the entries expire.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider, ApplicationListener<CredentialsChangedEvent> {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final AuthenticationProvider delegate;
+    private final Cache<String, Authentication> verified;
+    private final SecretKeySpec key;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, Duration timeToLive, long maximumSize) {
+        this.delegate = delegate;
+        this.verified = Caffeine.newBuilder()
+                .expireAfterWrite(timeToLive)
+                .maximumSize(maximumSize)
+                .build();
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (authentication.getCredentials() == null) {
+            return delegate.authenticate(authentication);
+        }
+        String cacheKey = digest(authentication.getName(), authentication.getCredentials().toString());
+        Authentication cached = verified.getIfPresent(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated()) {
+            verified.put(cacheKey, result);
+        }
+        return result;
+    }
+
+    public void evict(String username) {
+        verified.asMap().values().removeIf(authentication -> username.equals(authentication.getName()));
+    }
+
+    @Override
+    public void onApplicationEvent(CredentialsChangedEvent event) {
+        evict(event.getUsername());
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication)
+                && delegate.supports(authentication);
+    }
+
+    private String digest(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(password.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(mac.doFinal());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
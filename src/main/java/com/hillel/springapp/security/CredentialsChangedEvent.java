@@ -0,0 +1,21 @@
+package com.hillel.springapp.security;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when a user's password, status or authorities change, so cached authentications of
+ * that user stop being accepted.
+ */
+public class CredentialsChangedEvent extends ApplicationEvent {
+
+    private final String username;
+
+    public CredentialsChangedEvent(Object source, String username) {
+        super(source);
+        this.username = username;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+}
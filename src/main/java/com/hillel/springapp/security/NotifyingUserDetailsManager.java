@@ -0,0 +1,63 @@
+package com.hillel.springapp.security;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.provisioning.UserDetailsManager;
+
+/**
+ * Publishes a {@link CredentialsChangedEvent} after every change to a user, so credentials
+ * cached by {@link CachingAuthenticationProvider} are dropped as soon as they change.
+ */
+public class NotifyingUserDetailsManager implements UserDetailsManager {
+
+    private final UserDetailsManager delegate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public NotifyingUserDetailsManager(UserDetailsManager delegate, ApplicationEventPublisher eventPublisher) {
+        this.delegate = delegate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return delegate.loadUserByUsername(username);
+    }
+
+    @Override
+    public boolean userExists(String username) {
+        return delegate.userExists(username);
+    }
+
+    @Override
+    public void createUser(UserDetails user) {
+        delegate.createUser(user);
+    }
+
+    @Override
+    public void updateUser(UserDetails user) {
+        delegate.updateUser(user);
+        changed(user.getUsername());
+    }
+
+    @Override
+    public void deleteUser(String username) {
+        delegate.deleteUser(username);
+        changed(username);
+    }
+
+    @Override
+    public void changePassword(String oldPassword, String newPassword) {
+        Authentication current = SecurityContextHolder.getContext().getAuthentication();
+        delegate.changePassword(oldPassword, newPassword);
+        if (current != null) {
+            changed(current.getName());
+        }
+    }
+
+    private void changed(String username) {
+        eventPublisher.publishEvent(new CredentialsChangedEvent(this, username));
+    }
+}
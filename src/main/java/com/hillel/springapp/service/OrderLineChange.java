@@ -0,0 +1,20 @@
+package com.hillel.springapp.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class OrderLineChange {
+
+    private Long productId;
+    private boolean added;
+
+    public static OrderLineChange added(Long productId) {
+        return new OrderLineChange(productId, true);
+    }
+
+    public static OrderLineChange removed(Long productId) {
+        return new OrderLineChange(productId, false);
+    }
+}
@@ -0,0 +1,134 @@
+package com.hillel.springapp.service;
+
+import com.hillel.springapp.config.OrderCoalescingProperties;
+import com.hillel.springapp.metrics.SqlStatementCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects line changes that concurrent requests make to the same order and applies them
+ * in one transaction per batch. Orders are striped over single-threaded executors, so
+ * batches of one order never run concurrently. Requests carrying an expected version
+ * skip the queue and are checked optimistically instead. The SQL statements of a batch
+ * count towards every request it served.
+ */
+@Component
+public class OrderLineCoalescer implements DisposableBean {
+
+    private final OrderService orderService;
+    private final OrderCoalescingProperties properties;
+    private final ExecutorService[] stripes;
+    private final ConcurrentMap<Long, List<PendingChange>> pending = new ConcurrentHashMap<>();
+    private final Logger logger = LoggerFactory.getLogger(OrderLineCoalescer.class);
+
+    @Autowired
+    public OrderLineCoalescer(OrderService orderService, OrderCoalescingProperties properties) {
+        this.orderService = orderService;
+        this.properties = properties;
+        this.stripes = new ExecutorService[Math.max(1, properties.getStripes())];
+        for (int i = 0; i < stripes.length; i++) {
+            int stripe = i;
+            stripes[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "order-coalescer-" + stripe);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public CompletableFuture<OrderLineResult> submit(Long orderId, List<OrderLineChange> changes, Long expectedVersion) {
+        if (expectedVersion != null || !properties.isEnabled()) {
+            return CompletableFuture.completedFuture(orderService.applyLineChanges(orderId, changes, expectedVersion));
+        }
+        PendingChange change = new PendingChange(changes);
+        boolean[] scheduled = new boolean[1];
+        pending.compute(orderId, (id, queued) -> {
+            if (queued == null) {
+                queued = new ArrayList<>();
+                scheduled[0] = true;
+            }
+            queued.add(change);
+            return queued;
+        });
+        if (scheduled[0]) {
+            stripes[Math.floorMod(orderId.hashCode(), stripes.length)].execute(() -> drain(orderId));
+        }
+        return change.result;
+    }
+
+    private void drain(Long orderId) {
+        List<PendingChange> batch = pending.remove(orderId);
+        if (batch == null) {
+            return;
+        }
+        List<OrderLineChange> changes = new ArrayList<>();
+        for (PendingChange change : batch) {
+            changes.addAll(change.changes);
+        }
+        SqlStatementCounter.reset();
+        try {
+            OrderLineResult result = orderService.applyLineChanges(orderId, changes, null);
+            countStatements(batch);
+            for (PendingChange change : batch) {
+                change.result.complete(result);
+            }
+        } catch (RuntimeException e) {
+            countStatements(batch);
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+            logger.info("Batch of {} changes to order {} failed, applying them one by one", batch.size(), orderId);
+            for (PendingChange change : batch) {
+                SqlStatementCounter.reset();
+                try {
+                    OrderLineResult result = orderService.applyLineChanges(orderId, change.changes, null);
+                    countStatements(Collections.singletonList(change));
+                    change.result.complete(result);
+                } catch (RuntimeException single) {
+                    countStatements(Collections.singletonList(change));
+                    change.result.completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    // before completing, the request may record its metrics as soon as its result is set
+    private static void countStatements(List<PendingChange> served) {
+        int statements = SqlStatementCounter.current();
+        for (PendingChange change : served) {
+            change.statements.addAndGet(statements);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (ExecutorService stripe : stripes) {
+            stripe.shutdown();
+        }
+    }
+
+    private static final class PendingChange {
+
+        private final List<OrderLineChange> changes;
+        private final CompletableFuture<OrderLineResult> result = new CompletableFuture<>();
+        private final AtomicInteger statements = SqlStatementCounter.capture();
+
+        private PendingChange(List<OrderLineChange> changes) {
+            this.changes = changes;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.hillel.springapp.service;
+
+import com.hillel.springapp.dto.OrderDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * An order after a line change together with the version the change left it at.
+ */
+@Data
+@AllArgsConstructor
+public class OrderLineResult {
+
+    private OrderDTO order;
+    private long version;
+}
@@ -1,116 +1,503 @@
 package com.hillel.springapp.service;
 
+import com.hillel.springapp.config.OrderBatchProperties;
+import com.hillel.springapp.config.OrderExportProperties;
+import com.hillel.springapp.config.PaginationProperties;
+import com.hillel.springapp.dto.BatchOrderItemDTO;
+import com.hillel.springapp.dto.BatchOrderResultDTO;
+import com.hillel.springapp.dto.CursorPageDTO;
 import com.hillel.springapp.dto.OrderDTO;
+import com.hillel.springapp.dto.OrderDates;
+import com.hillel.springapp.dto.OrderExportRowDTO;
+import com.hillel.springapp.dto.OrderKeyDTO;
+import com.hillel.springapp.dto.OrderLineDTO;
 import com.hillel.springapp.dto.ProductDTO;
 import com.hillel.springapp.entity.Order;
 import com.hillel.springapp.entity.Product;
+import com.hillel.springapp.exception.UnknownProductException;
 import com.hillel.springapp.mapper.OrderMapper;
-import com.hillel.springapp.mapper.ProductMapper;
 import com.hillel.springapp.repository.OrderRepository;
+import com.hillel.springapp.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class OrderService {
+    private static final String EXPORT_QUERY = "select new com.hillel.springapp.dto.OrderExportRowDTO("
+            + "o.id, o.date, o.cost, p.id, p.name, p.cost) from Order o left join o.products p order by o.id";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+
     private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final SalesRollupService salesRollupService;
     private final OrderMapper orderMapper;
-    private final ProductMapper productMapper;
+    private final PaginationProperties paginationProperties;
+    private final OrderBatchProperties orderBatchProperties;
+    private final OrderExportProperties orderExportProperties;
+    private final EntityManager entityManager;
     private final Logger logger = LoggerFactory.getLogger(OrderService.class);
 
     @Autowired
-    public OrderService(OrderRepository orderRepository, OrderMapper orderMapper, ProductMapper productMapper) {
+    public OrderService(OrderRepository orderRepository, ProductRepository productRepository,
+                        ProductService productService, SalesRollupService salesRollupService, OrderMapper orderMapper,
+                        PaginationProperties paginationProperties, OrderBatchProperties orderBatchProperties,
+                        OrderExportProperties orderExportProperties, EntityManager entityManager) {
         this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.productService = productService;
+        this.salesRollupService = salesRollupService;
         this.orderMapper = orderMapper;
-        this.productMapper = productMapper;
+        this.paginationProperties = paginationProperties;
+        this.orderBatchProperties = orderBatchProperties;
+        this.orderExportProperties = orderExportProperties;
+        this.entityManager = entityManager;
     }
 
+    @Transactional(readOnly = true)
     public OrderDTO getOrderById(Long id) {
         logger.info("Getting order by ID: {}", id);
-        Optional<Order> order = orderRepository.findById(id);
-        return order.map(orderMapper::orderToOrderDTO).orElse(null);
+        // one order with its lines reads cheaper as an entity graph than as two projections
+        return orderRepository.findWithProductsById(id).map(orderMapper::orderToOrderDTO).orElse(null);
     }
 
+    @Transactional(readOnly = true)
     public List<OrderDTO> getAllOrders() {
         logger.info("Getting all orders");
-        List<Order> orders = orderRepository.findAll();
-        return orderMapper.ordersToOrderDTOs(orders);
+        List<OrderDTO> orders = orderRepository.findAllDtos();
+        Map<Long, OrderDTO> ordersById = indexById(orders);
+        for (OrderLineDTO line : orderRepository.findAllLines()) {
+            addLine(ordersById, line);
+        }
+        return orders;
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<OrderDTO> getOrdersPage(Long after, Integer size) {
+        int pageSize = paginationProperties.resolvePageSize(size);
+        logger.info("Getting orders page after ID: {}, size: {}", after, pageSize);
+        List<OrderDTO> orders = orderRepository.findDtoPage(after != null ? after : 0L, PageRequest.of(0, pageSize + 1));
+        boolean hasNext = orders.size() > pageSize;
+        List<OrderDTO> page = hasNext ? new ArrayList<>(orders.subList(0, pageSize)) : orders;
+        Long next = hasNext ? page.get(page.size() - 1).getId() : null;
+        attachProducts(page);
+        return new CursorPageDTO<>(page, next);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<OrderDTO> getOrdersInRange(String from, String to, Long after, Integer size) {
+        int pageSize = paginationProperties.resolvePageSize(size);
+        LocalDateTime fromDate = from != null ? OrderDates.parse(from) : OrderDates.MIN;
+        LocalDateTime toDate = to != null ? OrderDates.parse(to) : OrderDates.MAX;
+        logger.info("Getting orders from {} to {} after ID: {}, size: {}", fromDate, toDate, after, pageSize);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<OrderDTO> orders;
+        if (after == null) {
+            orders = orderRepository.findDtoRange(fromDate, toDate, limit);
+        } else {
+            LocalDateTime afterDate = orderRepository.findDateById(after)
+                    .orElseThrow(() -> new IllegalArgumentException("Cursor order " + after + " does not exist"));
+            orders = orderRepository.findDtoRangeAfter(fromDate, toDate, afterDate, after, limit);
+        }
+        boolean hasNext = orders.size() > pageSize;
+        List<OrderDTO> page = hasNext ? new ArrayList<>(orders.subList(0, pageSize)) : orders;
+        Long next = hasNext ? page.get(page.size() - 1).getId() : null;
+        attachProducts(page);
+        return new CursorPageDTO<>(page, next);
+    }
+
+    /**
+     * Streams every order to the sink. Orders and their lines come from one left-joined query
+     * ordered by order id, so nothing else needs the connection while MySQL streams the rows
+     * with {@code app.orders.export.fetch-size}.
+     */
+    @Transactional(readOnly = true)
+    public void exportOrders(Consumer<OrderDTO> sink) {
+        logger.info("Exporting all orders");
+        TypedQuery<OrderExportRowDTO> query = entityManager.createQuery(EXPORT_QUERY, OrderExportRowDTO.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, orderExportProperties.getFetchSize());
+        try (Stream<OrderExportRowDTO> rows = query.getResultStream()) {
+            OrderDTO order = null;
+            Iterator<OrderExportRowDTO> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                OrderExportRowDTO row = iterator.next();
+                if (order == null || order.getId() != row.getOrderId()) {
+                    if (order != null) {
+                        sink.accept(order);
+                    }
+                    order = new OrderDTO(row.getOrderId(), row.getDate(), row.getCost());
+                }
+                if (row.getProductId() != null) {
+                    order.getProducts().add(new ProductDTO(row.getProductId(), row.getProductName(), row.getProductCost()));
+                }
+            }
+            if (order != null) {
+                sink.accept(order);
+            }
+        }
     }
 
+    @Transactional(readOnly = true)
+    public Long getOrderVersion(Long id) {
+        return orderRepository.findVersionById(id).orElse(null);
+    }
+
+    /**
+     * Creates an order. Products with an id are linked and must exist, products without one
+     * (id 0) are created in the catalog first, as this endpoint always did.
+     */
+    @Transactional
     public OrderDTO addOrder(OrderDTO orderDTO) {
-        logger.info("Adding new order: {}", orderDTO);
+        List<ProductDTO> productDTOs = orderDTO.getProducts() != null ? orderDTO.getProducts() : Collections.emptyList();
+        logger.info("Adding new order. Date: {}, products: {}", orderDTO.getDate(), productDTOs.size());
         Order order = orderMapper.orderDTOToOrder(orderDTO);
+        order.setId(null);
+        if (order.getDate() == null) {
+            order.setDate(LocalDateTime.now(ZoneOffset.UTC));
+        }
+        List<Long> existingIds = new ArrayList<>(productDTOs.size());
+        for (ProductDTO productDTO : productDTOs) {
+            if (productDTO.getId() > 0) {
+                existingIds.add(productDTO.getId());
+            }
+        }
+        Map<Long, ProductDTO> products = requireExistingProducts(existingIds);
+        List<Long> productIds = new ArrayList<>(productDTOs.size());
+        for (ProductDTO productDTO : productDTOs) {
+            if (productDTO.getId() <= 0) {
+                ProductDTO createdProduct = productService.addProduct(productDTO);
+                products.put(createdProduct.getId(), createdProduct);
+                productIds.add(createdProduct.getId());
+            } else {
+                productIds.add(productDTO.getId());
+            }
+        }
+        List<ProductDTO> lines = linkProducts(order, productIds, products);
         Order savedOrder = orderRepository.save(order);
+        salesRollupService.recordLines(savedOrder.getDate(), 1, lines, 1);
         return orderMapper.orderToOrderDTO(savedOrder);
     }
 
+    @Transactional
+    public List<BatchOrderResultDTO> addOrders(List<BatchOrderItemDTO> items) {
+        logger.info("Adding batch of {} orders", items.size());
+        if (items.size() > orderBatchProperties.getMaxSize()) {
+            throw new IllegalArgumentException("Batch of " + items.size() + " orders exceeds the maximum of "
+                    + orderBatchProperties.getMaxSize());
+        }
+        Set<String> keys = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        for (BatchOrderItemDTO item : items) {
+            if (item.getIdempotencyKey() != null) {
+                keys.add(item.getIdempotencyKey());
+            }
+            if (item.getOrder() != null) {
+                productIds.addAll(productIds(item.getOrder().getProducts()));
+            }
+        }
+        Map<String, Long> orderIdsByKey = new HashMap<>();
+        if (!keys.isEmpty()) {
+            for (OrderKeyDTO orderKey : orderRepository.findKeysByIdempotencyKeys(keys)) {
+                orderIdsByKey.put(orderKey.getIdempotencyKey(), orderKey.getOrderId());
+            }
+        }
+        Map<Long, ProductDTO> products = findProducts(productIds);
+
+        List<BatchOrderResultDTO> results = new ArrayList<>(items.size());
+        for (BatchOrderItemDTO item : items) {
+            results.add(addBatchItem(item, orderIdsByKey, products));
+        }
+        return results;
+    }
+
+    private BatchOrderResultDTO addBatchItem(BatchOrderItemDTO item, Map<String, Long> orderIdsByKey,
+                                             Map<Long, ProductDTO> products) {
+        String key = item.getIdempotencyKey();
+        if (key == null || key.isEmpty() || key.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return new BatchOrderResultDTO(key, BatchOrderResultDTO.Status.REJECTED, null,
+                    "Idempotency key must have 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        Long existingOrderId = orderIdsByKey.get(key);
+        if (existingOrderId != null) {
+            return new BatchOrderResultDTO(key, BatchOrderResultDTO.Status.DUPLICATE, existingOrderId, null);
+        }
+        if (item.getOrder() == null) {
+            return new BatchOrderResultDTO(key, BatchOrderResultDTO.Status.REJECTED, null, "Order is missing");
+        }
+        List<Long> productIds = productIds(item.getOrder().getProducts());
+        Set<Long> unknownIds = new TreeSet<>();
+        for (Long productId : productIds) {
+            if (!products.containsKey(productId)) {
+                unknownIds.add(productId);
+            }
+        }
+        if (!unknownIds.isEmpty()) {
+            return new BatchOrderResultDTO(key, BatchOrderResultDTO.Status.REJECTED, null,
+                    "Unknown product IDs: " + unknownIds);
+        }
+        Order order;
+        try {
+            order = orderMapper.orderDTOToOrder(item.getOrder());
+        } catch (IllegalArgumentException e) {
+            return new BatchOrderResultDTO(key, BatchOrderResultDTO.Status.REJECTED, null, e.getMessage());
+        }
+        order.setId(null);
+        order.setIdempotencyKey(key);
+        if (order.getDate() == null) {
+            order.setDate(LocalDateTime.now(ZoneOffset.UTC));
+        }
+        List<ProductDTO> lines = linkProducts(order, productIds, products);
+        // the insert is deferred to flush, so the whole batch goes out as batched statements
+        Order savedOrder = orderRepository.save(order);
+        salesRollupService.recordLines(savedOrder.getDate(), 1, lines, 1);
+        orderIdsByKey.put(key, savedOrder.getId());
+        return new BatchOrderResultDTO(key, BatchOrderResultDTO.Status.CREATED, savedOrder.getId(), null);
+    }
+
+    private List<ProductDTO> linkProducts(Order order, List<Long> productIds, Map<Long, ProductDTO> products) {
+        List<Product> productReferences = new ArrayList<>(productIds.size());
+        List<ProductDTO> lines = new ArrayList<>(productIds.size());
+        double cost = 0;
+        for (Long productId : productIds) {
+            productReferences.add(productRepository.getReferenceById(productId));
+            lines.add(products.get(productId));
+            cost += products.get(productId).getCost();
+        }
+        order.setProducts(productReferences);
+        order.setCost(cost);
+        return lines;
+    }
+
+    @Transactional
     public boolean deleteOrder(Long id) {
         logger.info("Deleting order with ID: {}", id);
-        Optional<Order> order = orderRepository.findById(id);
-        if (order.isPresent()) {
-            orderRepository.delete(order.get());
-            return true;
-        } else {
+        List<ProductDTO> lines = orderRepository.findProductDtosByOrderId(id);
+        Optional<LocalDateTime> date = orderRepository.findDateById(id);
+        if (!lines.isEmpty()) {
+            orderRepository.deleteAllOrderProducts(id);
+        }
+        if (orderRepository.deleteOrderById(id) == 0) {
             return false;
         }
+        salesRollupService.recordLines(date.orElse(null), -1, lines, -1);
+        return true;
     }
 
-    public OrderDTO addProductToOrder(Long orderId, ProductDTO productDTO) {
-        logger.info("Adding product to order. Order ID: {}, Product: {}", orderId, productDTO);
-        Optional<Order> order = orderRepository.findById(orderId);
-        if (order.isPresent()) {
-            Order existingOrder = order.get();
-            List<Product> products = existingOrder.getProducts();
-            products.add(productMapper.productDTOToProduct(productDTO));
-            orderRepository.save(existingOrder);
-            return orderMapper.orderToOrderDTO(existingOrder);
-        } else {
+    /**
+     * Adds a product to the order, creating it in the catalog first when it has no id. The order
+     * is claimed as in {@link #applyLineChanges}, so a stale {@code expectedVersion} fails before
+     * the product is created.
+     */
+    @Transactional
+    public OrderLineResult addProductToOrder(Long orderId, ProductDTO productDTO, Long expectedVersion) {
+        logger.info("Adding product to order. Order ID: {}, Product ID: {}", orderId, productDTO.getId());
+        if (productDTO.getId() > 0) {
+            return applyLineChanges(orderId, Collections.singletonList(OrderLineChange.added(productDTO.getId())),
+                    expectedVersion);
+        }
+        if (!claim(orderId, expectedVersion)) {
             return null;
         }
+        ProductDTO createdProduct = productService.addProduct(productDTO);
+        orderRepository.insertOrderProduct(orderId, createdProduct.getId());
+        orderRepository.adjustClaimedCost(orderId, createdProduct.getCost());
+        salesRollupService.recordLines(orderRepository.findDateById(orderId).orElse(null), 0,
+                Collections.singletonList(createdProduct), 1);
+        long version = expectedVersion != null ? expectedVersion + 1 : getOrderVersion(orderId);
+        return new OrderLineResult(getOrderById(orderId), version);
+    }
+
+    @Transactional
+    public OrderDTO addProductsToOrder(Long orderId, List<Long> productIds) {
+        logger.info("Adding products to order. Order ID: {}, products: {}", orderId, productIds.size());
+        List<OrderLineChange> changes = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            changes.add(OrderLineChange.added(productId));
+        }
+        return orderOf(applyLineChanges(orderId, changes, null));
     }
 
+    @Transactional
     public OrderDTO deleteProductFromOrder(Long orderId, Long productId) {
         logger.info("Deleting product from order. Order ID: {}, Product ID: {}", orderId, productId);
-        Optional<Order> order = orderRepository.findById(orderId);
-        if (order.isPresent()) {
-            Order existingOrder = order.get();
-            List<Product> products = existingOrder.getProducts();
-            products.removeIf(p -> p.getId().equals(productId));
-            orderRepository.save(existingOrder);
-            return orderMapper.orderToOrderDTO(existingOrder);
-        } else {
+        return orderOf(applyLineChanges(orderId, Collections.singletonList(OrderLineChange.removed(productId)), null));
+    }
+
+    /**
+     * Applies the changes in order within one transaction. When {@code expectedVersion} is given,
+     * the order row is claimed only if it still has that version, otherwise
+     * {@link OptimisticLockingFailureException} is thrown and nothing is changed. Claiming bumps
+     * the version once, the cost updates that follow leave it alone.
+     */
+    @Transactional
+    public OrderLineResult applyLineChanges(Long orderId, List<OrderLineChange> changes, Long expectedVersion) {
+        if (!claim(orderId, expectedVersion)) {
             return null;
         }
+        List<Long> addedIds = new ArrayList<>();
+        Set<Long> changedIds = new HashSet<>();
+        for (OrderLineChange change : changes) {
+            if (change.isAdded()) {
+                addedIds.add(change.getProductId());
+            }
+            changedIds.add(change.getProductId());
+        }
+        Map<Long, ProductDTO> products = findProducts(changedIds);
+        requireKnownProducts(addedIds, products);
+        List<ProductDTO> addedLines = new ArrayList<>(addedIds.size());
+        List<ProductDTO> removedLines = new ArrayList<>();
+        double delta = 0;
+        for (OrderLineChange change : changes) {
+            ProductDTO product = products.get(change.getProductId());
+            if (change.isAdded()) {
+                orderRepository.insertOrderProduct(orderId, change.getProductId());
+                addedLines.add(product);
+                delta += product.getCost();
+            } else {
+                int removed = orderRepository.deleteOrderProduct(orderId, change.getProductId());
+                if (removed > 0) {
+                    orderRepository.adjustClaimedCostByProduct(orderId, change.getProductId(), -removed);
+                    for (int i = 0; i < removed && product != null; i++) {
+                        removedLines.add(product);
+                    }
+                }
+            }
+        }
+        if (!addedIds.isEmpty()) {
+            orderRepository.adjustClaimedCost(orderId, delta);
+        }
+        if (!addedLines.isEmpty() || !removedLines.isEmpty()) {
+            LocalDateTime date = orderRepository.findDateById(orderId).orElse(null);
+            salesRollupService.recordLines(date, 0, addedLines, 1);
+            salesRollupService.recordLines(date, 0, removedLines, -1);
+        }
+        long version = expectedVersion != null ? expectedVersion + 1 : getOrderVersion(orderId);
+        return new OrderLineResult(getOrderById(orderId), version);
     }
 
+    private boolean claim(Long orderId, Long expectedVersion) {
+        int claimed = expectedVersion != null
+                ? orderRepository.claimVersion(orderId, expectedVersion)
+                : orderRepository.touchVersion(orderId);
+        if (claimed == 0) {
+            if (expectedVersion == null || !orderRepository.existsById(orderId)) {
+                return false;
+            }
+            throw new OptimisticLockingFailureException("Order " + orderId + " is no longer at version " + expectedVersion);
+        }
+        return true;
+    }
+
+    private static OrderDTO orderOf(OrderLineResult result) {
+        return result != null ? result.getOrder() : null;
+    }
+
+    @Transactional
     public OrderDTO clearOrder(Long orderId) {
         logger.info("Clearing order. Order ID: {}", orderId);
-        Optional<Order> order = orderRepository.findById(orderId);
-        if (order.isPresent()) {
-            Order existingOrder = order.get();
-            existingOrder.getProducts().clear();
-            orderRepository.save(existingOrder);
-            return orderMapper.orderToOrderDTO(existingOrder);
-        } else {
+        if (orderRepository.resetCost(orderId) == 0) {
             return null;
         }
+        List<ProductDTO> lines = orderRepository.findProductDtosByOrderId(orderId);
+        if (!lines.isEmpty()) {
+            salesRollupService.recordLines(orderRepository.findDateById(orderId).orElse(null), 0, lines, -1);
+            orderRepository.deleteAllOrderProducts(orderId);
+        }
+        return getOrderById(orderId);
     }
 
+    @Transactional(readOnly = true)
     public List<ProductDTO> getAllProductsInOrder(Long orderId) {
         logger.info("Getting all products in order. Order ID: {}", orderId);
-        Optional<Order> order = orderRepository.findById(orderId);
-        if (order.isPresent()) {
-            List<Product> products = order.get().getProducts();
-            return products.stream()
-                    .map(productMapper::productToProductDTO)
-                    .collect(Collectors.toList());
-        } else {
+        List<ProductDTO> products = orderRepository.findProductDtosByOrderId(orderId);
+        if (products.isEmpty() && !orderRepository.existsById(orderId)) {
             return null;
         }
+        return products;
+    }
+
+    private void attachProducts(List<OrderDTO> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        Map<Long, OrderDTO> ordersById = indexById(orders);
+        for (OrderLineDTO line : orderRepository.findLinesByOrderIds(ordersById.keySet())) {
+            addLine(ordersById, line);
+        }
+    }
+
+    private static Map<Long, OrderDTO> indexById(List<OrderDTO> orders) {
+        Map<Long, OrderDTO> ordersById = new HashMap<>(orders.size() * 2);
+        for (OrderDTO orderDTO : orders) {
+            ordersById.put(orderDTO.getId(), orderDTO);
+        }
+        return ordersById;
+    }
+
+    private static void addLine(Map<Long, OrderDTO> ordersById, OrderLineDTO line) {
+        OrderDTO orderDTO = ordersById.get(line.getOrderId());
+        if (orderDTO != null) {
+            orderDTO.getProducts().add(new ProductDTO(line.getProductId(), line.getName(), line.getCost()));
+        }
+    }
+
+    private List<Long> productIds(List<ProductDTO> productDTOs) {
+        if (productDTOs == null) {
+            return Collections.emptyList();
+        }
+        return productDTOs.stream()
+                .map(ProductDTO::getId)
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, ProductDTO> findProducts(Collection<Long> productIds) {
+        Map<Long, ProductDTO> products = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return products;
+        }
+        for (ProductDTO productDTO : productRepository.findDtosByIds(productIds)) {
+            products.put(productDTO.getId(), productDTO);
+        }
+        return products;
+    }
+
+    private Map<Long, ProductDTO> requireExistingProducts(Collection<Long> productIds) {
+        Map<Long, ProductDTO> products = findProducts(productIds);
+        requireKnownProducts(productIds, products);
+        return products;
+    }
+
+    private static void requireKnownProducts(Collection<Long> productIds, Map<Long, ProductDTO> products) {
+        if (!products.keySet().containsAll(productIds)) {
+            List<Long> unknownIds = productIds.stream()
+                    .filter(productId -> !products.containsKey(productId))
+                    .collect(Collectors.toList());
+            throw new UnknownProductException(unknownIds);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.hillel.springapp.service;
+
+import com.hillel.springapp.config.ImportProperties;
+import com.hillel.springapp.dto.BulkImportResultDTO;
+import com.hillel.springapp.dto.ImportChunkDTO;
+import com.hillel.springapp.dto.ProductDTO;
+import com.hillel.springapp.entity.Product;
+import com.hillel.springapp.mapper.ProductMapper;
+import com.hillel.springapp.repository.ProductRepository;
+import com.hillel.springapp.search.ProductSearchIndex;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.hillel.springapp.config.CacheConfiguration.PRODUCT_CATALOG;
+
+@Service
+public class ProductImportService {
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ImportProperties importProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ProductSearchIndex productSearchIndex;
+    private final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    @Autowired
+    public ProductImportService(ProductRepository productRepository, ProductMapper productMapper,
+                                ImportProperties importProperties, TransactionTemplate transactionTemplate,
+                                EntityManager entityManager, ProductSearchIndex productSearchIndex) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.importProperties = importProperties;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.productSearchIndex = productSearchIndex;
+    }
+
+    @CacheEvict(cacheNames = PRODUCT_CATALOG, allEntries = true)
+    public BulkImportResultDTO importProducts(List<ProductDTO> productDTOs) {
+        int chunkSize = importProperties.getChunkSize();
+        logger.info("Importing {} products in chunks of {}", productDTOs.size(), chunkSize);
+        List<ImportChunkDTO> chunks = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int from = 0; from < productDTOs.size(); from += chunkSize) {
+            List<ProductDTO> chunk = productDTOs.subList(from, Math.min(from + chunkSize, productDTOs.size()));
+            long chunkStarted = System.nanoTime();
+            List<ProductDTO> inserted = transactionTemplate.execute(status -> insertChunk(chunk));
+            productSearchIndex.addAllAfterCommit(inserted);
+            long chunkNanos = System.nanoTime() - chunkStarted;
+            chunks.add(new ImportChunkDTO(chunks.size(), chunk.size(),
+                    TimeUnit.NANOSECONDS.toMillis(chunkNanos), rowsPerSecond(chunk.size(), chunkNanos)));
+        }
+        long totalNanos = System.nanoTime() - started;
+        logger.info("Imported {} products in {} ms", productDTOs.size(), TimeUnit.NANOSECONDS.toMillis(totalNanos));
+        return new BulkImportResultDTO(productDTOs.size(), TimeUnit.NANOSECONDS.toMillis(totalNanos),
+                rowsPerSecond(productDTOs.size(), totalNanos), chunks);
+    }
+
+    public List<ProductDTO> parseCsv(String csv) {
+        List<ProductDTO> productDTOs = new ArrayList<>();
+        String[] lines = csv.split("\\r?\\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty() || (i == 0 && line.toLowerCase().startsWith("name,"))) {
+                continue;
+            }
+            int separator = line.lastIndexOf(',');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": expected 'name,cost'");
+            }
+            String name = unquote(line.substring(0, separator).trim());
+            try {
+                double cost = Double.parseDouble(line.substring(separator + 1).trim());
+                productDTOs.add(new ProductDTO(0L, name, cost));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": invalid cost", e);
+            }
+        }
+        return productDTOs;
+    }
+
+    private List<ProductDTO> insertChunk(List<ProductDTO> chunk) {
+        List<Product> products = new ArrayList<>(chunk.size());
+        for (ProductDTO productDTO : chunk) {
+            Product product = productMapper.productDTOToProduct(productDTO);
+            product.setId(null);
+            products.add(product);
+        }
+        productRepository.saveAll(products);
+        entityManager.flush();
+        entityManager.clear();
+        return productMapper.productsToProductDTOs(products);
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1).replace("\"\"", "\"");
+        }
+        return value;
+    }
+
+    private static double rowsPerSecond(int rows, long nanos) {
+        return nanos > 0 ? rows * (double) TimeUnit.SECONDS.toNanos(1) / nanos : 0;
+    }
+}
@@ -1,57 +1,165 @@
 package com.hillel.springapp.service;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.hillel.springapp.config.PaginationProperties;
+import com.hillel.springapp.config.ProductSearchProperties;
+import com.hillel.springapp.dto.CacheRegionStatsDTO;
+import com.hillel.springapp.dto.CacheStatsDTO;
+import com.hillel.springapp.dto.CursorPageDTO;
 import com.hillel.springapp.dto.ProductDTO;
 import com.hillel.springapp.entity.Product;
 import com.hillel.springapp.mapper.ProductMapper;
 import com.hillel.springapp.repository.ProductRepository;
+import com.hillel.springapp.search.ProductSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
+
+import static com.hillel.springapp.config.CacheConfiguration.PRODUCTS;
+import static com.hillel.springapp.config.CacheConfiguration.PRODUCT_CATALOG;
+import static com.hillel.springapp.config.SecondLevelCacheConfiguration.ORDER_QUERY_REGION;
 
 @Service
 public class ProductService {
 
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final PaginationProperties paginationProperties;
+    private final CacheManager cacheManager;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSearchProperties productSearchProperties;
+    private final EntityManagerFactory entityManagerFactory;
     private final Logger logger = LoggerFactory.getLogger(ProductService.class);
 
 
     @Autowired
-    public ProductService(ProductRepository productRepository, ProductMapper productMapper) {
+    public ProductService(ProductRepository productRepository, ProductMapper productMapper,
+                          PaginationProperties paginationProperties, CacheManager cacheManager,
+                          ProductSearchIndex productSearchIndex, ProductSearchProperties productSearchProperties,
+                          EntityManagerFactory entityManagerFactory) {
         this.productRepository = productRepository;
         this.productMapper = productMapper;
+        this.paginationProperties = paginationProperties;
+        this.cacheManager = cacheManager;
+        this.productSearchIndex = productSearchIndex;
+        this.productSearchProperties = productSearchProperties;
+        this.entityManagerFactory = entityManagerFactory;
     }
 
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = PRODUCTS, key = "#id", unless = "#result == null")
     public ProductDTO getProductById(Long id) {
         logger.info("Getting product by ID: {}", id);
-        Optional<Product> product = productRepository.findById(id);
-        return product.map(productMapper::productToProductDTO).orElse(null);
+        return productRepository.findDtoById(id).orElse(null);
     }
 
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = PRODUCT_CATALOG, key = "'all'")
     public List<ProductDTO> getAllProducts() {
         logger.info("Getting all products");
-        List<Product> products = productRepository.findAll();
-        return productMapper.productsToProductDTOs(products);
+        return productRepository.findAllDtos();
+    }
+
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = PRODUCT_CATALOG, key = "'page:' + #after + ':' + #size")
+    public CursorPageDTO<ProductDTO> getProductsPage(Long after, Integer size) {
+        int pageSize = paginationProperties.resolvePageSize(size);
+        logger.info("Getting products page after ID: {}, size: {}", after, pageSize);
+        List<ProductDTO> products = productRepository.findDtoPage(after != null ? after : 0L, PageRequest.of(0, pageSize + 1));
+        boolean hasNext = products.size() > pageSize;
+        List<ProductDTO> page = hasNext ? new ArrayList<>(products.subList(0, pageSize)) : products;
+        Long next = hasNext ? page.get(page.size() - 1).getId() : null;
+        return new CursorPageDTO<>(page, next);
     }
 
+    public List<ProductDTO> searchProducts(String query, Integer limit) {
+        return productSearchIndex.search(query, productSearchProperties.resolveLimit(limit),
+                productSearchProperties.getMaxCandidates());
+    }
+
+    @Caching(
+            put = @CachePut(cacheNames = PRODUCTS, key = "#result.id"),
+            evict = @CacheEvict(cacheNames = PRODUCT_CATALOG, allEntries = true)
+    )
     public ProductDTO addProduct(ProductDTO productDTO) {
-        logger.info("Adding new product: {}", productDTO);
+        logger.info("Adding new product: {}", productDTO.getName());
         Product product = productMapper.productDTOToProduct(productDTO);
+        product.setId(null);
         Product savedProduct = productRepository.save(product);
-        return productMapper.productToProductDTO(savedProduct);
+        ProductDTO savedProductDTO = productMapper.productToProductDTO(savedProduct);
+        productSearchIndex.addAllAfterCommit(Collections.singletonList(savedProductDTO));
+        return savedProductDTO;
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = PRODUCTS, key = "#id"),
+            @CacheEvict(cacheNames = PRODUCT_CATALOG, allEntries = true)
+    })
+    @Transactional
     public boolean deleteProduct(Long id) {
         logger.info("Deleting product with ID: {}", id);
-        if (productRepository.findById(id).isPresent()) {
-            productRepository.deleteById(id);
+        if (productRepository.deleteProductById(id) > 0) {
+            productSearchIndex.removeAfterCommit(id);
             return true;
         } else {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    public List<CacheStatsDTO> getCacheStats() {
+        List<CacheStatsDTO> stats = new ArrayList<>();
+        for (String name : new String[]{PRODUCTS, PRODUCT_CATALOG}) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof TransactionAwareCacheDecorator) {
+                cache = ((TransactionAwareCacheDecorator) cache).getTargetCache();
+            }
+            if (cache instanceof CaffeineCache) {
+                com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = ((CaffeineCache) cache).getNativeCache();
+                CacheStats cacheStats = nativeCache.stats();
+                stats.add(new CacheStatsDTO(name, nativeCache.estimatedSize(), cacheStats.hitCount(),
+                        cacheStats.missCount(), cacheStats.hitRate(), cacheStats.evictionCount()));
+            }
+        }
+        return stats;
+    }
+
+    public List<CacheRegionStatsDTO> getCacheRegionStats() {
+        List<CacheRegionStatsDTO> stats = new ArrayList<>();
+        if (!Boolean.parseBoolean(String.valueOf(
+                entityManagerFactory.getProperties().get(AvailableSettings.USE_SECOND_LEVEL_CACHE)))) {
+            return stats;
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (String region : new String[]{ORDER_QUERY_REGION,
+                RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME}) {
+            CacheRegionStatistics regionStats = statistics.getCacheRegionStatistics(region);
+            if (regionStats != null) {
+                long requests = regionStats.getHitCount() + regionStats.getMissCount();
+                stats.add(new CacheRegionStatsDTO(region, regionStats.getHitCount(), regionStats.getMissCount(),
+                        regionStats.getPutCount(), requests > 0 ? (double) regionStats.getHitCount() / requests : 0));
+            }
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,194 @@
+package com.hillel.springapp.service;
+
+import com.hillel.springapp.config.ReportProperties;
+import com.hillel.springapp.dto.DailySalesDTO;
+import com.hillel.springapp.dto.ProductDTO;
+import com.hillel.springapp.dto.ProductSalesDTO;
+import com.hillel.springapp.entity.DailyProductSales;
+import com.hillel.springapp.entity.DailySales;
+import com.hillel.springapp.entity.SalesDelta;
+import com.hillel.springapp.repository.DailyProductSalesRepository;
+import com.hillel.springapp.repository.DailySalesRepository;
+import com.hillel.springapp.repository.SalesDeltaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps per-day sales rollups. Order changes only append rows to {@code sales_delta} within the
+ * order's transaction, so concurrent orders never contend on the rollup rows. {@link #foldDeltas()}
+ * periodically adds the pending deltas to {@code daily_sales} and {@code daily_product_sales}.
+ * Folds on different instances claim disjoint deltas and lock the rollup rows they update; two
+ * folds creating the same new rollup row fail on its primary key and the loser retries next run.
+ */
+@Service
+public class SalesRollupService {
+
+    private final SalesDeltaRepository salesDeltaRepository;
+    private final DailySalesRepository dailySalesRepository;
+    private final DailyProductSalesRepository dailyProductSalesRepository;
+    private final ReportProperties reportProperties;
+    private final Logger logger = LoggerFactory.getLogger(SalesRollupService.class);
+
+    @Autowired
+    public SalesRollupService(SalesDeltaRepository salesDeltaRepository, DailySalesRepository dailySalesRepository,
+                              DailyProductSalesRepository dailyProductSalesRepository,
+                              ReportProperties reportProperties) {
+        this.salesDeltaRepository = salesDeltaRepository;
+        this.dailySalesRepository = dailySalesRepository;
+        this.dailyProductSalesRepository = dailyProductSalesRepository;
+        this.reportProperties = reportProperties;
+    }
+
+    /**
+     * Records {@code orders} new (or, when negative, deleted) orders on the day of {@code date}
+     * together with the given lines, each counted {@code sign} times.
+     */
+    @Transactional
+    public void recordLines(LocalDateTime date, int orders, List<ProductDTO> lines, int sign) {
+        if (date == null || (orders == 0 && lines.isEmpty())) {
+            return;
+        }
+        LocalDate day = date.toLocalDate();
+        Map<Long, SalesDelta> byProduct = new LinkedHashMap<>();
+        double revenue = 0;
+        for (ProductDTO line : lines) {
+            SalesDelta delta = byProduct.computeIfAbsent(line.getId(), productId -> newDelta(day, productId));
+            delta.setQuantity(delta.getQuantity() + sign);
+            delta.setRevenue(delta.getRevenue() + sign * line.getCost());
+            revenue += sign * line.getCost();
+        }
+        List<SalesDelta> deltas = new ArrayList<>(byProduct.size() + 1);
+        SalesDelta orderDelta = newDelta(day, null);
+        orderDelta.setOrderCount(orders);
+        orderDelta.setRevenue(revenue);
+        deltas.add(orderDelta);
+        deltas.addAll(byProduct.values());
+        salesDeltaRepository.saveAll(deltas);
+    }
+
+    @Transactional
+    public int foldDeltas() {
+        int folded = 0;
+        List<SalesDelta> deltas;
+        do {
+            deltas = salesDeltaRepository.claimOldest(PageRequest.of(0, reportProperties.getFoldChunkSize()));
+            if (deltas.isEmpty()) {
+                break;
+            }
+            foldChunk(deltas);
+            folded += deltas.size();
+        } while (deltas.size() == reportProperties.getFoldChunkSize());
+        if (folded > 0) {
+            logger.info("Folded {} sales deltas", folded);
+        }
+        return folded;
+    }
+
+    private void foldChunk(List<SalesDelta> deltas) {
+        Map<LocalDate, DailySales> days = new HashMap<>();
+        Map<DailyProductSales.Key, DailyProductSales> products = new HashMap<>();
+        Set<LocalDate> productDays = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        List<Long> deltaIds = new ArrayList<>(deltas.size());
+        for (SalesDelta delta : deltas) {
+            deltaIds.add(delta.getId());
+            if (delta.getProductId() == null) {
+                days.put(delta.getSalesDay(), null);
+            } else {
+                productDays.add(delta.getSalesDay());
+                productIds.add(delta.getProductId());
+            }
+        }
+        if (!days.isEmpty()) {
+            for (DailySales dailySales : dailySalesRepository.findAllForUpdate(days.keySet())) {
+                days.put(dailySales.getSalesDay(), dailySales);
+            }
+        }
+        if (!productIds.isEmpty()) {
+            for (DailyProductSales productSales : dailyProductSalesRepository.findAllForUpdate(productDays, productIds)) {
+                products.put(new DailyProductSales.Key(productSales.getSalesDay(), productSales.getProductId()), productSales);
+            }
+        }
+        for (SalesDelta delta : deltas) {
+            if (delta.getProductId() == null) {
+                DailySales dailySales = days.get(delta.getSalesDay());
+                if (dailySales == null) {
+                    dailySales = new DailySales();
+                    dailySales.setSalesDay(delta.getSalesDay());
+                    days.put(delta.getSalesDay(), dailySales);
+                }
+                dailySales.setOrderCount(dailySales.getOrderCount() + delta.getOrderCount());
+                dailySales.setRevenue(dailySales.getRevenue() + delta.getRevenue());
+            } else {
+                DailyProductSales.Key key = new DailyProductSales.Key(delta.getSalesDay(), delta.getProductId());
+                DailyProductSales productSales = products.get(key);
+                if (productSales == null) {
+                    productSales = new DailyProductSales();
+                    productSales.setSalesDay(delta.getSalesDay());
+                    productSales.setProductId(delta.getProductId());
+                    products.put(key, productSales);
+                }
+                productSales.setQuantity(productSales.getQuantity() + delta.getQuantity());
+                productSales.setRevenue(productSales.getRevenue() + delta.getRevenue());
+            }
+        }
+        dailySalesRepository.saveAll(days.values());
+        dailyProductSalesRepository.saveAll(products.values());
+        int deleted = salesDeltaRepository.deleteByIds(deltaIds);
+        if (deleted != deltaIds.size()) {
+            throw new IllegalStateException("Deleted " + deleted + " of " + deltaIds.size()
+                    + " folded sales deltas, rolling the fold back");
+        }
+    }
+
+    /**
+     * Recomputes both rollup tables from the orders with set-based SQL and drops pending deltas.
+     * Deleting the deltas first waits for running folds and keeps later folds off them, but orders
+     * committed while it runs may be counted twice, so run it only while order writes are paused.
+     */
+    @Transactional
+    public int rebuild() {
+        logger.info("Rebuilding sales rollups");
+        salesDeltaRepository.deleteAllDeltas();
+        dailyProductSalesRepository.deleteAllRollups();
+        dailySalesRepository.deleteAllRollups();
+        int days = dailySalesRepository.rebuildRollups();
+        dailyProductSalesRepository.rebuildRollups();
+        logger.info("Rebuilt sales rollups for {} days", days);
+        return days;
+    }
+
+    @Transactional(readOnly = true)
+    public List<DailySalesDTO> getDailySales(LocalDate from, LocalDate to) {
+        logger.info("Getting daily sales from {} to {}", from, to);
+        return dailySalesRepository.findDtoRange(from, to);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductSalesDTO> getTopProducts(LocalDate from, LocalDate to, int limit) {
+        int size = Math.max(1, Math.min(limit, reportProperties.getMaxTopProducts()));
+        logger.info("Getting top {} products from {} to {}", size, from, to);
+        return dailyProductSalesRepository.findTopProducts(from, to, PageRequest.of(0, size));
+    }
+
+    private static SalesDelta newDelta(LocalDate day, Long productId) {
+        SalesDelta delta = new SalesDelta();
+        delta.setSalesDay(day);
+        delta.setProductId(productId);
+        return delta;
+    }
+}
@@ -0,0 +1,86 @@
+-- Schema of the prod profile, exported from the JPA mapping with the MySQL 8 dialect. Databases that were
+-- created earlier by ddl-auto: update already have these tables and are baselined at this version.
+
+create table daily_product_sales (
+    revenue float(53) not null,
+    sales_day date not null,
+    product_id bigint not null,
+    quantity bigint not null,
+    primary key (sales_day, product_id)
+) engine=InnoDB;
+
+create table daily_sales (
+    revenue float(53) not null,
+    sales_day date not null,
+    order_count bigint not null,
+    primary key (sales_day)
+) engine=InnoDB;
+
+create table order_product (
+    order_id bigint not null,
+    product_id bigint not null
+) engine=InnoDB;
+
+create table order_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into order_seq values ( 1 );
+
+create table orders (
+    cost float(53) not null,
+    id bigint not null,
+    ordered_at datetime(6),
+    version bigint not null,
+    idempotency_key varchar(64),
+    primary key (id)
+) engine=InnoDB;
+
+create table product_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into product_seq values ( 1 );
+
+create table products (
+    cost float(53) not null,
+    id bigint not null,
+    version bigint not null,
+    name varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table sales_delta (
+    order_count integer not null,
+    revenue float(53) not null,
+    sales_day date,
+    id bigint not null,
+    product_id bigint,
+    quantity bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table sales_delta_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into sales_delta_seq values ( 1 );
+
+create index ix_daily_product_sales_day
+   on daily_product_sales (sales_day);
+
+create index ix_orders_ordered_at
+   on orders (ordered_at, id);
+
+alter table orders
+   add constraint ux_orders_idempotency_key unique (idempotency_key);
+
+alter table order_product
+   add constraint FKo6helt0ucmegaeachjpx40xhe
+   foreign key (product_id)
+   references products (id);
+
+alter table order_product
+   add constraint FKl5mnj9n0di7k1v90yxnthkc73
+   foreign key (order_id)
+   references orders (id);
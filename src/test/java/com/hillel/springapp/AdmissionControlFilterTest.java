@@ -0,0 +1,121 @@
+package com.hillel.springapp;
+
+import com.hillel.springapp.admission.AdmissionControlFilter;
+import com.hillel.springapp.config.AdmissionProperties;
+import com.hillel.springapp.config.ReplicaDataSourceProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+class AdmissionControlFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionProperties properties;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new AdmissionProperties();
+    }
+
+    @Test
+    void testRejectsClientOverItsRate() throws Exception {
+        properties.setBurst(2);
+        properties.setRequestsPerSecond(0.5);
+        AdmissionControlFilter filter = filter();
+
+        Assertions.assertEquals(200, handle(filter, request("10.0.0.1", "/products")).getStatus());
+        Assertions.assertEquals(200, handle(filter, request("10.0.0.1", "/products")).getStatus());
+        MockHttpServletResponse rejected = handle(filter, request("10.0.0.1", "/products"));
+
+        Assertions.assertEquals(429, rejected.getStatus());
+        Assertions.assertEquals("2", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        Assertions.assertEquals(200, handle(filter, request("10.0.0.2", "/products")).getStatus());
+        Assertions.assertEquals(3, meterRegistry.get(AdmissionControlFilter.ADMITTED).tag("lane", "api").counter().count());
+        Assertions.assertEquals(1, meterRegistry.get(AdmissionControlFilter.REJECTED).tag("reason", "rate-limit").counter().count());
+    }
+
+    @Test
+    void testKeysAuthenticatedClientsByUsername() throws Exception {
+        properties.setBurst(1);
+        properties.setRequestsPerSecond(0.5);
+        AdmissionControlFilter filter = filter();
+
+        Assertions.assertEquals(200, handle(filter, request("10.0.0.1", "/products", "serhii")).getStatus());
+        Assertions.assertEquals(429, handle(filter, request("10.0.0.2", "/products", "serhii")).getStatus());
+        Assertions.assertEquals(200, handle(filter, request("10.0.0.1", "/products", "admin")).getStatus());
+        Assertions.assertEquals(200, handle(filter, request("10.0.0.1", "/products")).getStatus());
+        Assertions.assertEquals(429, handle(filter, request("10.0.0.1", "/products")).getStatus());
+    }
+
+    @Test
+    void testShedsLoadOverConcurrencyLimitButAdmitsPing() throws Exception {
+        properties.setMaxConcurrentRequests(1);
+        AdmissionControlFilter filter = filter();
+        MockHttpServletRequest inFlight = request("10.0.0.1", "/products");
+        inFlight.setAsyncSupported(true);
+        FilterChain startsAsync = (request, response) -> request.startAsync();
+
+        filter.doFilter(inFlight, new MockHttpServletResponse(), startsAsync);
+        MockHttpServletResponse rejected = handle(filter, request("10.0.0.2", "/products"));
+        Assertions.assertEquals(503, rejected.getStatus());
+        Assertions.assertEquals("1", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        Assertions.assertEquals(200, handle(filter, request("10.0.0.2", "/ping")).getStatus());
+
+        inFlight.getAsyncContext().complete();
+        Assertions.assertEquals(200, handle(filter, request("10.0.0.2", "/products")).getStatus());
+        Assertions.assertEquals(1, meterRegistry.get(AdmissionControlFilter.REJECTED).tag("reason", "concurrency").counter().count());
+        Assertions.assertEquals(1, meterRegistry.get(AdmissionControlFilter.ADMITTED).tag("lane", "ping").counter().count());
+        Assertions.assertEquals(0, meterRegistry.get(AdmissionControlFilter.IN_FLIGHT).gauge().value());
+    }
+
+    @Test
+    void testDerivesConcurrencyLimitFromConnectionPools() {
+        ReplicaDataSourceProperties.Replica replica = new ReplicaDataSourceProperties.Replica();
+        replica.setMaximumPoolSize(5);
+        ReplicaDataSourceProperties replicaProperties = new ReplicaDataSourceProperties();
+        replicaProperties.getReplicas().add(replica);
+        HikariDataSource primary = new HikariDataSource();
+        primary.setMaximumPoolSize(20);
+
+        AdmissionControlFilter filter = new AdmissionControlFilter(properties, primary, replicaProperties, meterRegistry);
+
+        Assertions.assertEquals(50, filter.getMaxConcurrentRequests());
+    }
+
+    private AdmissionControlFilter filter() {
+        return new AdmissionControlFilter(properties, new HikariDataSource(), new ReplicaDataSourceProperties(),
+                meterRegistry);
+    }
+
+    private static MockHttpServletResponse handle(AdmissionControlFilter filter, MockHttpServletRequest request)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String address, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(address);
+        return request;
+    }
+
+    private static MockHttpServletRequest request(String address, String path, String username) {
+        MockHttpServletRequest request = request(address, path);
+        String credentials = username + ":password";
+        request.addHeader(HttpHeaders.AUTHORIZATION,
+                "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+        return request;
+    }
+}
@@ -0,0 +1,76 @@
+package com.hillel.springapp;
+
+import com.hillel.springapp.security.CachingAuthenticationProvider;
+import com.hillel.springapp.security.CredentialsChangedEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Duration;
+
+class CachingAuthenticationProviderTest {
+
+    @Mock
+    private AuthenticationProvider delegate;
+
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        provider = new CachingAuthenticationProvider(delegate, Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    void testRepeatedCredentialsAreVerifiedOnce() {
+        Authentication verified = UsernamePasswordAuthenticationToken.authenticated(
+                "admin", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN"));
+        Mockito.when(delegate.authenticate(Mockito.any())).thenReturn(verified);
+
+        Authentication first = provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "password"));
+        Authentication second = provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "password"));
+
+        Assertions.assertSame(verified, first);
+        Assertions.assertSame(verified, second);
+        Mockito.verify(delegate, Mockito.times(1)).authenticate(Mockito.any());
+    }
+
+    @Test
+    void testDifferentPasswordIsVerifiedAgain() {
+        Authentication verified = UsernamePasswordAuthenticationToken.authenticated(
+                "admin", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN"));
+        Mockito.when(delegate.authenticate(Mockito.any()))
+                .thenReturn(verified)
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "password"));
+
+        Assertions.assertThrows(BadCredentialsException.class, () ->
+                provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "wrong")));
+        Mockito.verify(delegate, Mockito.times(2)).authenticate(Mockito.any());
+    }
+
+    @Test
+    void testChangedCredentialsAreVerifiedAgain() {
+        Authentication verified = UsernamePasswordAuthenticationToken.authenticated(
+                "admin", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN"));
+        Mockito.when(delegate.authenticate(Mockito.any()))
+                .thenReturn(verified)
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "password"));
+        provider.onApplicationEvent(new CredentialsChangedEvent(this, "admin"));
+
+        Assertions.assertThrows(BadCredentialsException.class, () ->
+                provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "password")));
+        Mockito.verify(delegate, Mockito.times(2)).authenticate(Mockito.any());
+    }
+}
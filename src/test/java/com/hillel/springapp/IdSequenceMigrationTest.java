@@ -0,0 +1,55 @@
+package com.hillel.springapp;
+
+import com.hillel.springapp.job.IdSequenceMigration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Emulates a MySQL schema that moved from auto-increment ids to Hibernate's table-backed sequences.
+ */
+@JdbcTest
+class IdSequenceMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate.execute("create table products (id bigint primary key)");
+        jdbcTemplate.execute("create table product_seq (next_val bigint)");
+        jdbcTemplate.execute("create table orders (id bigint primary key)");
+        jdbcTemplate.execute("create table order_seq (next_val bigint)");
+        jdbcTemplate.update("insert into products values (1), (2), (120)");
+        jdbcTemplate.update("insert into product_seq values (1)");
+        jdbcTemplate.update("insert into order_seq values (500)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        // H2 commits DDL immediately, so the test transaction does not roll the tables back
+        jdbcTemplate.execute("drop table products, product_seq, orders, order_seq");
+    }
+
+    @Test
+    void testMovesSequencesPastExistingIds() {
+        new IdSequenceMigration(jdbcTemplate).run(null);
+
+        Assertions.assertEquals(171L, jdbcTemplate.queryForObject("select next_val from product_seq", Long.class));
+        // empty table, the sequence is left alone
+        Assertions.assertEquals(500L, jdbcTemplate.queryForObject("select next_val from order_seq", Long.class));
+    }
+
+    @Test
+    void testNeverLowersSequence() {
+        jdbcTemplate.update("update product_seq set next_val = 1000");
+
+        new IdSequenceMigration(jdbcTemplate).run(null);
+
+        Assertions.assertEquals(1000L, jdbcTemplate.queryForObject("select next_val from product_seq", Long.class));
+    }
+}
@@ -1,23 +1,42 @@
 package com.hillel.springapp;
 
 import com.hillel.springapp.controller.OrderController;
+import com.hillel.springapp.dto.CursorPageDTO;
 import com.hillel.springapp.dto.OrderDTO;
 import com.hillel.springapp.dto.ProductDTO;
+import com.hillel.springapp.service.OrderLineChange;
+import com.hillel.springapp.service.OrderLineResult;
+import com.hillel.springapp.service.OrderLineCoalescer;
 import com.hillel.springapp.service.OrderService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 
+import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
@@ -27,6 +46,9 @@ class OrderControllerTest {
     @Mock
     private OrderService orderService;
 
+    @Mock
+    private OrderLineCoalescer orderLineCoalescer;
+
     @InjectMocks
     private OrderController orderController;
 
@@ -39,24 +61,50 @@ class OrderControllerTest {
     void testGetOrderById_ValidId_ReturnsOrder() {
         long orderId = 1L;
         OrderDTO orderDTO = new OrderDTO(orderId, "2023-07-06", 100.0, null);
+        when(orderService.getOrderVersion(orderId)).thenReturn(3L);
         when(orderService.getOrderById(orderId)).thenReturn(orderDTO);
 
-        ResponseEntity<OrderDTO> response = orderController.getOrderById(orderId);
+        ResponseEntity<OrderDTO> response = orderController.getOrderById(orderId, getRequest(null));
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("W/\"3\"", response.getHeaders().getETag());
+        assertEquals(Collections.singletonList(HttpHeaders.ACCEPT), response.getHeaders().getVary());
         assertEquals(orderDTO, response.getBody());
         verify(orderService, times(1)).getOrderById(orderId);
     }
 
+    @Test
+    void testGetOrderById_MatchingETag_ReturnsNotModified() {
+        long orderId = 1L;
+        when(orderService.getOrderVersion(orderId)).thenReturn(3L);
+
+        ResponseEntity<OrderDTO> response = orderController.getOrderById(orderId, getRequest("\"3\""));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        verify(orderService, never()).getOrderById(orderId);
+    }
+
+    @Test
+    void testGetOrderById_MatchingWeakETag_ReturnsNotModified() {
+        long orderId = 1L;
+        when(orderService.getOrderVersion(orderId)).thenReturn(3L);
+
+        ResponseEntity<OrderDTO> response = orderController.getOrderById(orderId, getRequest("W/\"3\""));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("W/\"3\"", response.getHeaders().getETag());
+        verify(orderService, never()).getOrderById(orderId);
+    }
+
     @Test
     void testGetOrderById_InvalidId_ReturnsNotFound() {
         long orderId = 1L;
-        when(orderService.getOrderById(orderId)).thenReturn(null);
+        when(orderService.getOrderVersion(orderId)).thenReturn(null);
 
-        ResponseEntity<OrderDTO> response = orderController.getOrderById(orderId);
+        ResponseEntity<OrderDTO> response = orderController.getOrderById(orderId, getRequest(null));
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(orderService, times(1)).getOrderById(orderId);
+        verify(orderService, never()).getOrderById(orderId);
     }
 
     @Test
@@ -65,13 +113,14 @@ class OrderControllerTest {
                 new OrderDTO(1L, "2023-07-06", 100.0, null),
                 new OrderDTO(2L, "2023-07-07", 200.0, null)
         );
-        when(orderService.getAllOrders()).thenReturn(orderDTOs);
+        CursorPageDTO<OrderDTO> page = new CursorPageDTO<>(orderDTOs, 2L);
+        when(orderService.getOrdersPage(null, 2)).thenReturn(page);
 
-        ResponseEntity<List<OrderDTO>> response = orderController.getAllOrders();
+        ResponseEntity<CursorPageDTO<OrderDTO>> response = orderController.getAllOrders(null, 2, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(orderDTOs, response.getBody());
-        verify(orderService, times(1)).getAllOrders();
+        assertEquals(page, response.getBody());
+        verify(orderService, times(1)).getOrdersPage(null, 2);
     }
 
     @Test
@@ -114,13 +163,43 @@ class OrderControllerTest {
         long productId = 2L;
         OrderDTO updatedOrderDTO = new OrderDTO(orderId, "2023-07-06", 100.0, null);
         ProductDTO productDTO = new ProductDTO(productId, "Product", 50.0);
-        when(orderService.addProductToOrder(eq(orderId), any(ProductDTO.class))).thenReturn(updatedOrderDTO);
+        when(orderLineCoalescer.submit(orderId, List.of(OrderLineChange.added(productId)), null))
+                .thenReturn(CompletableFuture.completedFuture(new OrderLineResult(updatedOrderDTO, 5L)));
 
-        ResponseEntity<OrderDTO> response = orderController.addProductToOrder(orderId, productDTO);
+        ResponseEntity<OrderDTO> response = orderController.addProductToOrder(orderId, productDTO, null).join();
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(updatedOrderDTO, response.getBody());
-        verify(orderService, times(1)).addProductToOrder(eq(orderId), any(ProductDTO.class));
+        assertEquals("W/\"5\"", response.getHeaders().getETag());
+        verify(orderLineCoalescer, times(1)).submit(orderId, List.of(OrderLineChange.added(productId)), null);
+    }
+
+    @Test
+    void testAddProductToOrder_NewProduct_ReturnsUpdatedOrderWithETag() {
+        long orderId = 1L;
+        OrderDTO updatedOrderDTO = new OrderDTO(orderId, "2023-07-06", 50.0, null);
+        ProductDTO productDTO = new ProductDTO(0L, "Product", 50.0);
+        when(orderService.addProductToOrder(orderId, productDTO, 1L)).thenReturn(new OrderLineResult(updatedOrderDTO, 2L));
+
+        ResponseEntity<OrderDTO> response = orderController.addProductToOrder(orderId, productDTO, "W/\"1\"").join();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(updatedOrderDTO, response.getBody());
+        assertEquals("W/\"2\"", response.getHeaders().getETag());
+        verify(orderLineCoalescer, never()).submit(any(), any(), any());
+    }
+
+    @Test
+    void testAddProductToOrder_NewProductWithStaleVersion_Fails() {
+        long orderId = 1L;
+        ProductDTO productDTO = new ProductDTO(0L, "Product", 50.0);
+        when(orderService.addProductToOrder(orderId, productDTO, 1L))
+                .thenThrow(new OptimisticLockingFailureException("Order 1 is no longer at version 1"));
+
+        OptimisticLockingFailureException e = assertThrows(OptimisticLockingFailureException.class,
+                () -> orderController.addProductToOrder(orderId, productDTO, "W/\"1\""));
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, orderController.handleOptimisticLockingFailure(e).getStatusCode());
     }
 
     @Test
@@ -128,12 +207,12 @@ class OrderControllerTest {
         long orderId = 1L;
         long productId = 2L;
         ProductDTO productDTO = new ProductDTO(productId, "Product", 50.0);
-        when(orderService.addProductToOrder(eq(orderId), any(ProductDTO.class))).thenReturn(null);
+        when(orderLineCoalescer.submit(eq(orderId), any(), isNull())).thenReturn(CompletableFuture.completedFuture(null));
 
-        ResponseEntity<OrderDTO> response = orderController.addProductToOrder(orderId, productDTO);
+        ResponseEntity<OrderDTO> response = orderController.addProductToOrder(orderId, productDTO, null).join();
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(orderService, times(1)).addProductToOrder(eq(orderId), any(ProductDTO.class));
+        verify(orderLineCoalescer, times(1)).submit(eq(orderId), any(), isNull());
     }
 
     @Test
@@ -141,25 +220,27 @@ class OrderControllerTest {
         long orderId = 1L;
         long productId = 2L;
         OrderDTO updatedOrderDTO = new OrderDTO(orderId, "2023-07-06", 100.0, null);
-        when(orderService.deleteProductFromOrder(eq(orderId), eq(productId))).thenReturn(updatedOrderDTO);
+        when(orderLineCoalescer.submit(orderId, List.of(OrderLineChange.removed(productId)), 4L))
+                .thenReturn(CompletableFuture.completedFuture(new OrderLineResult(updatedOrderDTO, 5L)));
 
-        ResponseEntity<OrderDTO> response = orderController.deleteProductFromOrder(orderId, productId);
+        ResponseEntity<OrderDTO> response = orderController.deleteProductFromOrder(orderId, productId, "\"4\"").join();
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(updatedOrderDTO, response.getBody());
-        verify(orderService, times(1)).deleteProductFromOrder(eq(orderId), eq(productId));
+        assertEquals("W/\"5\"", response.getHeaders().getETag());
+        verify(orderLineCoalescer, times(1)).submit(orderId, List.of(OrderLineChange.removed(productId)), 4L);
     }
 
     @Test
     void testDeleteProductFromOrder_NonExistingOrder_ReturnsNotFound() {
         long orderId = 1L;
         long productId = 2L;
-        when(orderService.deleteProductFromOrder(eq(orderId), eq(productId))).thenReturn(null);
+        when(orderLineCoalescer.submit(eq(orderId), any(), isNull())).thenReturn(CompletableFuture.completedFuture(null));
 
-        ResponseEntity<OrderDTO> response = orderController.deleteProductFromOrder(orderId, productId);
+        ResponseEntity<OrderDTO> response = orderController.deleteProductFromOrder(orderId, productId, null).join();
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(orderService, times(1)).deleteProductFromOrder(eq(orderId), eq(productId));
+        verify(orderLineCoalescer, times(1)).submit(eq(orderId), any(), isNull());
     }
 
     @Test
@@ -169,9 +250,10 @@ class OrderControllerTest {
                 new ProductDTO(1L, "Product 1", 10.0),
                 new ProductDTO(2L, "Product 2", 20.0)
         );
+        when(orderService.getOrderVersion(orderId)).thenReturn(3L);
         when(orderService.getAllProductsInOrder(orderId)).thenReturn(productDTOs);
 
-        ResponseEntity<List<ProductDTO>> response = orderController.getAllProductsInOrder(orderId);
+        ResponseEntity<List<ProductDTO>> response = orderController.getAllProductsInOrder(orderId, getRequest(null));
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(productDTOs, response.getBody());
@@ -181,11 +263,39 @@ class OrderControllerTest {
     @Test
     void testGetAllProductsInOrder_NonExistingOrder_ReturnsNotFound() {
         long orderId = 1L;
-        when(orderService.getAllProductsInOrder(orderId)).thenReturn(null);
+        when(orderService.getOrderVersion(orderId)).thenReturn(null);
 
-        ResponseEntity<List<ProductDTO>> response = orderController.getAllProductsInOrder(orderId);
+        ResponseEntity<List<ProductDTO>> response = orderController.getAllProductsInOrder(orderId, getRequest(null));
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(orderService, times(1)).getAllProductsInOrder(orderId);
+        verify(orderService, never()).getAllProductsInOrder(orderId);
+    }
+
+    @Test
+    void testIdempotencyKeyViolation_ReturnsConflict() {
+        DataIntegrityViolationException e = new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key", new SQLException(),
+                        "PUBLIC.UX_ORDERS_IDEMPOTENCY_KEY_INDEX_8"));
+
+        ResponseEntity<String> response = orderController.handleDataIntegrityViolation(e);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void testOtherIntegrityViolation_IsRethrown() {
+        DataIntegrityViolationException e = new DataIntegrityViolationException("foreign key",
+                new ConstraintViolationException("foreign key", new SQLException(), "FK_ORDER_PRODUCT_PRODUCT"));
+
+        assertSame(e, assertThrows(DataIntegrityViolationException.class,
+                () -> orderController.handleDataIntegrityViolation(e)));
+    }
+
+    private WebRequest getRequest(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/orders");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
     }
 }
@@ -0,0 +1,63 @@
+package com.hillel.springapp;
+
+import com.hillel.springapp.dto.OrderDTO;
+import com.hillel.springapp.entity.Order;
+import com.hillel.springapp.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@DataJpaTest
+class OrderDateRangeTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2023, 7, 2, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2023, 7, 5, 0, 0);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private List<Long> orderIds;
+
+    @BeforeEach
+    void setup() {
+        orderIds = new ArrayList<>();
+        for (int day = 1; day <= 6; day++) {
+            for (int i = 0; i < 2; i++) {
+                Order order = new Order();
+                order.setDate(LocalDateTime.of(2023, 7, day, 12, 0));
+                entityManager.persist(order);
+                orderIds.add(order.getId());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testRangeIsPagedInDateOrder() {
+        List<OrderDTO> first = orderRepository.findDtoRange(FROM, TO, PageRequest.of(0, 4));
+        OrderDTO last = first.get(first.size() - 1);
+        List<OrderDTO> second = orderRepository.findDtoRangeAfter(FROM, TO,
+                orderRepository.findDateById(last.getId()).get(), last.getId(), PageRequest.of(0, 4));
+
+        Assertions.assertEquals(orderIds.subList(2, 6), ids(first));
+        Assertions.assertEquals(orderIds.subList(6, 8), ids(second));
+        Assertions.assertEquals("2023-07-02T12:00:00", first.get(0).getDate());
+    }
+
+    private static List<Long> ids(List<OrderDTO> orders) {
+        return orders.stream().map(OrderDTO::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,99 @@
+package com.hillel.springapp;
+
+import com.hillel.springapp.config.OrderCoalescingProperties;
+import com.hillel.springapp.dto.OrderDTO;
+import com.hillel.springapp.metrics.SqlStatementCounter;
+import com.hillel.springapp.service.OrderLineChange;
+import com.hillel.springapp.service.OrderLineResult;
+import com.hillel.springapp.service.OrderLineCoalescer;
+import com.hillel.springapp.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class OrderLineCoalescerTest {
+
+    @Mock
+    private OrderService orderService;
+
+    private OrderLineCoalescer coalescer;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        OrderCoalescingProperties properties = new OrderCoalescingProperties();
+        properties.setStripes(1);
+        coalescer = new OrderLineCoalescer(orderService, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        coalescer.destroy();
+    }
+
+    @Test
+    void testChangesQueuedWhileBatchRunsAreAppliedTogether() throws Exception {
+        Long orderId = 1L;
+        OrderLineResult result = new OrderLineResult(new OrderDTO(orderId, "2023-07-06", 0.0), 5L);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(orderService.applyLineChanges(Mockito.eq(orderId), Mockito.anyList(), Mockito.isNull()))
+                .thenAnswer(invocation -> {
+                    entered.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return result;
+                });
+
+        CompletableFuture<OrderLineResult> first = coalescer.submit(orderId, List.of(OrderLineChange.added(2L)), null);
+        Assertions.assertTrue(entered.await(5, TimeUnit.SECONDS));
+        CompletableFuture<OrderLineResult> second = coalescer.submit(orderId, List.of(OrderLineChange.added(3L)), null);
+        CompletableFuture<OrderLineResult> third = coalescer.submit(orderId, List.of(OrderLineChange.removed(2L)), null);
+        release.countDown();
+
+        Assertions.assertSame(result, first.get(5, TimeUnit.SECONDS));
+        Assertions.assertSame(result, second.get(5, TimeUnit.SECONDS));
+        Assertions.assertSame(result, third.get(5, TimeUnit.SECONDS));
+        Mockito.verify(orderService).applyLineChanges(orderId, List.of(OrderLineChange.added(2L)), null);
+        Mockito.verify(orderService).applyLineChanges(orderId,
+                List.of(OrderLineChange.added(3L), OrderLineChange.removed(2L)), null);
+    }
+
+    @Test
+    void testBatchStatementsCountTowardsTheSubmittingRequest() throws Exception {
+        Long orderId = 1L;
+        SqlStatementCounter counter = new SqlStatementCounter();
+        Mockito.when(orderService.applyLineChanges(Mockito.eq(orderId), Mockito.anyList(), Mockito.isNull()))
+                .thenAnswer(invocation -> {
+                    counter.inspect("update orders");
+                    counter.inspect("insert into order_product");
+                    return new OrderLineResult(new OrderDTO(orderId, "2023-07-06", 0.0), 5L);
+                });
+
+        SqlStatementCounter.reset();
+        coalescer.submit(orderId, List.of(OrderLineChange.added(2L)), null).get(5, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(2, SqlStatementCounter.current());
+    }
+
+    @Test
+    void testExpectedVersionBypassesQueue() {
+        Long orderId = 1L;
+        OrderLineResult result = new OrderLineResult(new OrderDTO(orderId, "2023-07-06", 0.0), 5L);
+        List<OrderLineChange> changes = List.of(OrderLineChange.removed(2L));
+        Mockito.when(orderService.applyLineChanges(orderId, changes, 4L)).thenReturn(result);
+
+        CompletableFuture<OrderLineResult> future = coalescer.submit(orderId, changes, 4L);
+
+        Assertions.assertTrue(future.isDone());
+        Assertions.assertSame(result, future.join());
+    }
+}
@@ -0,0 +1,120 @@
+package com.hillel.springapp;
+
+import com.hillel.springapp.entity.Order;
+import com.hillel.springapp.entity.Product;
+import com.hillel.springapp.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class OrderLinePersistenceTest {
+
+    private static final int ORDER_SIZE = 20;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private Long orderId;
+    private List<Long> productIds;
+
+    @BeforeEach
+    void setup() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        productIds = new ArrayList<>();
+        Order order = new Order();
+        for (int i = 0; i <= ORDER_SIZE; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setCost(10.0);
+            entityManager.persist(product);
+            productIds.add(product.getId());
+            if (i < ORDER_SIZE) {
+                order.getProducts().add(product);
+            }
+        }
+        entityManager.persist(order);
+        entityManager.flush();
+        entityManager.clear();
+        orderId = order.getId();
+
+        statistics.clear();
+    }
+
+    @Test
+    void testAddingProductWritesOneRow() {
+        int inserted = orderRepository.insertOrderProduct(orderId, productIds.get(ORDER_SIZE));
+
+        Assertions.assertEquals(1, inserted);
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(ORDER_SIZE + 1, countLines());
+    }
+
+    @Test
+    void testRemovingProductDeletesOneRow() {
+        int deleted = orderRepository.deleteOrderProduct(orderId, productIds.get(0));
+
+        Assertions.assertEquals(1, deleted);
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(ORDER_SIZE - 1, countLines());
+    }
+
+    @Test
+    void testClearingOrderIsOneBulkDelete() {
+        int deleted = orderRepository.deleteAllOrderProducts(orderId);
+
+        Assertions.assertEquals(ORDER_SIZE, deleted);
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(0, countLines());
+    }
+
+    @Test
+    void testRemovingProductSubtractsItsCostAtomically() {
+        orderRepository.recalculateAllCosts();
+        Long version = orderRepository.findVersionById(orderId).get();
+
+        int deleted = orderRepository.deleteOrderProduct(orderId, productIds.get(0));
+        orderRepository.adjustClaimedCostByProduct(orderId, productIds.get(0), -deleted);
+
+        Assertions.assertEquals((ORDER_SIZE - 1) * 10.0, orderRepository.findById(orderId).get().getCost(), 0.001);
+        Assertions.assertEquals(version, orderRepository.findVersionById(orderId).get());
+    }
+
+    @Test
+    void testRecalculatingCostsIsOneStatement() {
+        orderRepository.recalculateAllCosts();
+
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(ORDER_SIZE * 10.0, orderRepository.findById(orderId).get().getCost(), 0.001);
+    }
+
+    @Test
+    void testCostUpdatesBumpOrderVersion() {
+        long version = orderRepository.findVersionById(orderId).get();
+
+        orderRepository.adjustCost(orderId, 10.0);
+        orderRepository.resetCost(orderId);
+
+        Assertions.assertEquals(version + 2, orderRepository.findVersionById(orderId).get());
+    }
+
+    private long countLines() {
+        return ((Number) entityManager
+                .createNativeQuery("select count(*) from order_product where order_id = :orderId")
+                .setParameter("orderId", orderId)
+                .getSingleResult()).longValue();
+    }
+}
@@ -0,0 +1,136 @@
+package com.hillel.springapp;
+
+import com.hillel.springapp.config.SecondLevelCacheConfiguration;
+import com.hillel.springapp.config.SecondLevelCacheProperties;
+import com.hillel.springapp.entity.Order;
+import com.hillel.springapp.entity.Product;
+import com.hillel.springapp.repository.OrderRepository;
+import com.hillel.springapp.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static com.hillel.springapp.config.SecondLevelCacheConfiguration.ORDER_QUERY_REGION;
+
+/**
+ * Runs outside a test transaction: the query cache only serves results once the writes that
+ * invalidate them have committed.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(SecondLevelCacheConfiguration.class)
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderQueryCacheTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private Long orderId;
+    private Long productId;
+
+    @BeforeEach
+    void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Product product = new Product();
+        product.setName("Product");
+        product.setCost(10.0);
+        productId = productRepository.save(product).getId();
+        Order order = new Order();
+        order.setDate(LocalDateTime.of(2023, 7, 6, 12, 0));
+        order.setCost(10.0);
+        order.getProducts().add(product);
+        orderId = orderRepository.save(order).getId();
+
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanup() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void testRepeatedOrderReadsHitTheRegion() {
+        orderRepository.findWithProductsById(orderId);
+        orderRepository.findVersionById(orderId);
+        orderRepository.findProductDtosByOrderId(orderId);
+
+        Order order = orderRepository.findWithProductsById(orderId).orElseThrow();
+        orderRepository.findVersionById(orderId);
+        Assertions.assertEquals(1, orderRepository.findProductDtosByOrderId(orderId).size());
+
+        Assertions.assertEquals(10.0, order.getCost(), 0.001);
+        Assertions.assertEquals(1, order.getProducts().size());
+        CacheRegionStatistics region = statistics.getQueryRegionStatistics(ORDER_QUERY_REGION);
+        Assertions.assertEquals(2, region.getMissCount());
+        Assertions.assertEquals(2, region.getPutCount());
+        Assertions.assertEquals(2, region.getHitCount());
+    }
+
+    @Test
+    void testOrderVersionIsAlwaysReadFromTheDatabase() {
+        long version = orderRepository.findVersionById(orderId).orElseThrow();
+
+        inTransaction(() -> orderRepository.touchVersion(orderId));
+
+        Assertions.assertEquals(version + 1, orderRepository.findVersionById(orderId).orElseThrow());
+        Assertions.assertEquals(0, statistics.getQueryCachePutCount());
+    }
+
+    @Test
+    void testCostUpdateInvalidatesCachedOrder() {
+        orderRepository.findWithProductsById(orderId);
+        orderRepository.findWithProductsById(orderId);
+
+        inTransaction(() -> orderRepository.adjustCost(orderId, 5.0));
+
+        Order order = orderRepository.findWithProductsById(orderId).orElseThrow();
+        Assertions.assertEquals(15.0, order.getCost(), 0.001);
+        CacheRegionStatistics region = statistics.getQueryRegionStatistics(ORDER_QUERY_REGION);
+        Assertions.assertEquals(1, region.getHitCount());
+        Assertions.assertEquals(2, region.getMissCount());
+    }
+
+    @Test
+    void testNativeLineInsertInvalidatesCachedLines() {
+        Assertions.assertEquals(1, orderRepository.findProductDtosByOrderId(orderId).size());
+
+        inTransaction(() -> orderRepository.insertOrderProduct(orderId, productId));
+
+        Assertions.assertEquals(2, orderRepository.findProductDtosByOrderId(orderId).size());
+        CacheRegionStatistics region = statistics.getQueryRegionStatistics(ORDER_QUERY_REGION);
+        Assertions.assertEquals(0, region.getHitCount());
+        Assertions.assertEquals(2, region.getMissCount());
+    }
+
+    private void inTransaction(Runnable write) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> write.run());
+    }
+}
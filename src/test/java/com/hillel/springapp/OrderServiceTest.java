@@ -1,76 +1,151 @@
 package com.hillel.springapp;
 
+import com.hillel.springapp.config.OrderBatchProperties;
+import com.hillel.springapp.config.OrderExportProperties;
+import com.hillel.springapp.config.PaginationProperties;
+import com.hillel.springapp.dto.BatchOrderItemDTO;
+import com.hillel.springapp.dto.BatchOrderResultDTO;
+import com.hillel.springapp.dto.CursorPageDTO;
 import com.hillel.springapp.dto.OrderDTO;
+import com.hillel.springapp.dto.OrderExportRowDTO;
+import com.hillel.springapp.dto.OrderKeyDTO;
+import com.hillel.springapp.dto.OrderLineDTO;
 import com.hillel.springapp.dto.ProductDTO;
 import com.hillel.springapp.entity.Order;
-import com.hillel.springapp.entity.Product;
+import com.hillel.springapp.exception.UnknownProductException;
 import com.hillel.springapp.mapper.OrderMapper;
-import com.hillel.springapp.mapper.ProductMapper;
 import com.hillel.springapp.repository.OrderRepository;
+import com.hillel.springapp.repository.ProductRepository;
+import com.hillel.springapp.service.OrderLineChange;
+import com.hillel.springapp.service.OrderLineResult;
 import com.hillel.springapp.service.OrderService;
+import com.hillel.springapp.service.ProductService;
+import com.hillel.springapp.service.SalesRollupService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 class OrderServiceTest {
 
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
     @Mock
     private OrderMapper orderMapper;
 
     @Mock
-    private ProductMapper productMapper;
+    private EntityManager entityManager;
 
     private OrderService orderService;
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
-        orderService = new OrderService(orderRepository, orderMapper, productMapper);
+        orderService = new OrderService(orderRepository, productRepository, productService, salesRollupService, orderMapper,
+                new PaginationProperties(), new OrderBatchProperties(), new OrderExportProperties(), entityManager);
     }
 
     @Test
     void testGetOrderById() {
         Long orderId = 1L;
         Order order = new Order();
-        order.setId(orderId);
-        OrderDTO orderDTO = new OrderDTO();
-        orderDTO.setId(orderId);
+        OrderDTO orderDTO = new OrderDTO(orderId, "2023-07-06", 30.0);
 
-        Mockito.when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        Mockito.when(orderRepository.findWithProductsById(orderId)).thenReturn(Optional.of(order));
         Mockito.when(orderMapper.orderToOrderDTO(order)).thenReturn(orderDTO);
 
         OrderDTO result = orderService.getOrderById(orderId);
 
-        Assertions.assertNotNull(result);
-        Assertions.assertEquals(orderId, result.getId());
+        Assertions.assertSame(orderDTO, result);
+        Mockito.verify(orderRepository, Mockito.never()).findById(Mockito.any());
     }
 
     @Test
-    void testGetAllOrders() {
-        List<Order> orders = new ArrayList<>();
-        orders.add(new Order());
-        orders.add(new Order());
+    void testGetOrderById_NonExistingOrder() {
+        Mockito.when(orderRepository.findWithProductsById(1L)).thenReturn(Optional.empty());
 
+        Assertions.assertNull(orderService.getOrderById(1L));
+        Mockito.verifyNoInteractions(orderMapper);
+    }
+
+    @Test
+    void testGetAllOrders() {
         List<OrderDTO> orderDTOs = new ArrayList<>();
-        orderDTOs.add(new OrderDTO());
-        orderDTOs.add(new OrderDTO());
+        orderDTOs.add(new OrderDTO(1L, "2023-07-06", 10.0));
+        orderDTOs.add(new OrderDTO(2L, "2023-07-07", 0.0));
 
-        Mockito.when(orderRepository.findAll()).thenReturn(orders);
-        Mockito.when(orderMapper.ordersToOrderDTOs(orders)).thenReturn(orderDTOs);
+        Mockito.when(orderRepository.findAllDtos()).thenReturn(orderDTOs);
+        Mockito.when(orderRepository.findAllLines()).thenReturn(List.of(new OrderLineDTO(1L, 5L, "Product 5", 10.0)));
 
         List<OrderDTO> result = orderService.getAllOrders();
 
         Assertions.assertNotNull(result);
         Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals(1, result.get(0).getProducts().size());
+        Assertions.assertTrue(result.get(1).getProducts().isEmpty());
+    }
+
+    @Test
+    void testGetOrdersPage() {
+        List<OrderDTO> orderDTOs = List.of(
+                new OrderDTO(11L, "2023-07-06", 0.0),
+                new OrderDTO(12L, "2023-07-06", 0.0),
+                new OrderDTO(13L, "2023-07-06", 0.0));
+
+        Mockito.when(orderRepository.findDtoPage(10L, PageRequest.of(0, 3))).thenReturn(orderDTOs);
+
+        CursorPageDTO<OrderDTO> result = orderService.getOrdersPage(10L, 2);
+
+        Assertions.assertEquals(2, result.getItems().size());
+        Assertions.assertEquals(12L, result.getNext());
+        Mockito.verify(orderRepository).findLinesByOrderIds(Set.of(11L, 12L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportOrders() {
+        LocalDateTime date = LocalDateTime.of(2023, 7, 6, 12, 0);
+        TypedQuery<OrderExportRowDTO> query = Mockito.mock(TypedQuery.class);
+        Mockito.when(entityManager.createQuery(Mockito.anyString(), Mockito.eq(OrderExportRowDTO.class))).thenReturn(query);
+        Mockito.when(query.setHint(HibernateHints.HINT_FETCH_SIZE, Integer.MIN_VALUE)).thenReturn(query);
+        Mockito.when(query.getResultStream()).thenReturn(Stream.of(
+                new OrderExportRowDTO(1L, date, 30.0, 2L, "Product 2", 10.0),
+                new OrderExportRowDTO(1L, date, 30.0, 3L, "Product 3", 20.0),
+                new OrderExportRowDTO(4L, date, 0.0, null, null, null)));
+
+        List<OrderDTO> exported = new ArrayList<>();
+        orderService.exportOrders(exported::add);
+
+        Assertions.assertEquals(2, exported.size());
+        Assertions.assertEquals(List.of(new ProductDTO(2L, "Product 2", 10.0), new ProductDTO(3L, "Product 3", 20.0)),
+                exported.get(0).getProducts());
+        Assertions.assertEquals(4L, exported.get(1).getId());
+        Assertions.assertTrue(exported.get(1).getProducts().isEmpty());
+        Mockito.verifyNoInteractions(orderRepository);
     }
 
     @Test
@@ -88,89 +163,271 @@ class OrderServiceTest {
         Assertions.assertEquals(orderDTO, result);
     }
 
+    @Test
+    void testAddOrder_CreatesInlineProducts() {
+        ProductDTO newProduct = new ProductDTO(0L, "New product", 5.0);
+        OrderDTO orderDTO = new OrderDTO(0L, "2023-07-06", 0.0,
+                List.of(new ProductDTO(2L, "Product 2", 10.0), newProduct));
+        Order order = new Order();
+
+        Mockito.when(orderMapper.orderDTOToOrder(orderDTO)).thenReturn(order);
+        Mockito.when(productRepository.findDtosByIds(List.of(2L))).thenReturn(List.of(new ProductDTO(2L, "Product 2", 10.0)));
+        Mockito.when(productService.addProduct(newProduct)).thenReturn(new ProductDTO(3L, "New product", 5.0));
+        Mockito.when(orderRepository.save(order)).thenReturn(order);
+        Mockito.when(orderMapper.orderToOrderDTO(order)).thenReturn(orderDTO);
+
+        orderService.addOrder(orderDTO);
+
+        Mockito.verify(productService).addProduct(newProduct);
+        Mockito.verify(productRepository).getReferenceById(2L);
+        Mockito.verify(productRepository).getReferenceById(3L);
+        Assertions.assertEquals(15.0, order.getCost(), 0.001);
+    }
+
+    @Test
+    void testAddOrder_UnknownProduct() {
+        OrderDTO orderDTO = new OrderDTO(0L, "2023-07-06", 0.0, List.of(new ProductDTO(9L, "Missing", 1.0)));
+        Mockito.when(orderMapper.orderDTOToOrder(orderDTO)).thenReturn(new Order());
+
+        Assertions.assertThrows(UnknownProductException.class, () -> orderService.addOrder(orderDTO));
+        Mockito.verify(orderRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    void testAddOrders_DeduplicatesOnIdempotencyKey() {
+        OrderDTO orderDTO = new OrderDTO(0L, "2023-07-06", 0.0, List.of(new ProductDTO(2L, "Product 2", 10.0)));
+        Order order = new Order();
+
+        Mockito.when(orderRepository.findKeysByIdempotencyKeys(Set.of("existing", "new")))
+                .thenReturn(List.of(new OrderKeyDTO("existing", 7L)));
+        Mockito.when(productRepository.findDtosByIds(Set.of(2L))).thenReturn(List.of(new ProductDTO(2L, "Product 2", 10.0)));
+        Mockito.when(orderMapper.orderDTOToOrder(orderDTO)).thenReturn(order);
+        Mockito.when(orderRepository.save(order)).thenAnswer(invocation -> {
+            order.setId(8L);
+            return order;
+        });
+
+        List<BatchOrderResultDTO> results = orderService.addOrders(List.of(
+                new BatchOrderItemDTO("existing", orderDTO),
+                new BatchOrderItemDTO("new", orderDTO),
+                new BatchOrderItemDTO("new", orderDTO)));
+
+        Assertions.assertEquals(BatchOrderResultDTO.Status.DUPLICATE, results.get(0).getStatus());
+        Assertions.assertEquals(7L, results.get(0).getOrderId());
+        Assertions.assertEquals(BatchOrderResultDTO.Status.CREATED, results.get(1).getStatus());
+        Assertions.assertEquals(BatchOrderResultDTO.Status.DUPLICATE, results.get(2).getStatus());
+        Assertions.assertEquals(8L, results.get(2).getOrderId());
+        Assertions.assertEquals(10.0, order.getCost(), 0.001);
+        Assertions.assertEquals("new", order.getIdempotencyKey());
+        Mockito.verify(orderRepository, Mockito.times(1)).save(order);
+    }
+
     @Test
     void testDeleteOrder() {
         Long orderId = 1L;
-        Order order = new Order();
 
-        Mockito.when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
-        Mockito.doNothing().when(orderRepository).delete(order);
+        Mockito.when(orderRepository.findProductDtosByOrderId(orderId)).thenReturn(List.of(new ProductDTO(2L, "Product 2", 20.0)));
+        Mockito.when(orderRepository.deleteOrderById(orderId)).thenReturn(1);
 
         boolean result = orderService.deleteOrder(orderId);
 
         Assertions.assertTrue(result);
-        Mockito.verify(orderRepository).delete(order);
+        Mockito.verify(orderRepository).deleteAllOrderProducts(orderId);
+        Mockito.verify(orderRepository).deleteOrderById(orderId);
+        Mockito.verify(orderRepository, Mockito.never()).findById(Mockito.any());
+    }
+
+    @Test
+    void testDeleteOrder_NonExistingOrder() {
+        Long orderId = 1L;
+
+        Assertions.assertFalse(orderService.deleteOrder(orderId));
+        Mockito.verify(orderRepository, Mockito.never()).deleteAllOrderProducts(orderId);
+        Mockito.verifyNoInteractions(salesRollupService);
     }
 
     @Test
     void testAddProductToOrder() {
         Long orderId = 1L;
         Long productId = 2L;
-        Order existingOrder = new Order();
-        ProductDTO productDTO = new ProductDTO();
-        Product product = new Product();
+        ProductDTO productDTO = new ProductDTO(0L, "Product", 50.0);
+
+        Mockito.when(orderRepository.touchVersion(orderId)).thenReturn(1);
+        Mockito.when(productService.addProduct(productDTO)).thenReturn(new ProductDTO(productId, "Product", 50.0));
+        stubOrder(orderId);
+        Mockito.when(orderRepository.findVersionById(orderId)).thenReturn(Optional.of(5L));
+
+        OrderLineResult result = orderService.addProductToOrder(orderId, productDTO, null);
+
+        Assertions.assertNotNull(result.getOrder());
+        Assertions.assertEquals(5L, result.getVersion());
+        Mockito.verify(orderRepository).insertOrderProduct(orderId, productId);
+        Mockito.verify(orderRepository).adjustClaimedCost(orderId, 50.0);
+        Mockito.verify(orderRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    void testAddProductToOrder_ClaimsExpectedVersion() {
+        Long orderId = 1L;
+        Long productId = 2L;
+        ProductDTO productDTO = new ProductDTO(0L, "Product", 50.0);
+
+        Mockito.when(orderRepository.claimVersion(orderId, 4L)).thenReturn(1);
+        Mockito.when(productService.addProduct(productDTO)).thenReturn(new ProductDTO(productId, "Product", 50.0));
+        stubOrder(orderId);
+
+        OrderLineResult result = orderService.addProductToOrder(orderId, productDTO, 4L);
+
+        Assertions.assertEquals(5L, result.getVersion());
+        Mockito.verify(orderRepository).adjustClaimedCost(orderId, 50.0);
+        Mockito.verify(orderRepository, Mockito.never()).touchVersion(Mockito.any());
+    }
+
+    @Test
+    void testAddProductToOrder_StaleVersion_DoesNotCreateProduct() {
+        Long orderId = 1L;
+        ProductDTO productDTO = new ProductDTO(0L, "Product", 50.0);
 
-        Mockito.when(orderRepository.findById(orderId)).thenReturn(Optional.of(existingOrder));
-        Mockito.when(productMapper.productDTOToProduct(productDTO)).thenReturn(product);
-        Mockito.when(orderMapper.orderToOrderDTO(existingOrder)).thenReturn(new OrderDTO());
+        Mockito.when(orderRepository.claimVersion(orderId, 4L)).thenReturn(0);
+        Mockito.when(orderRepository.existsById(orderId)).thenReturn(true);
 
-        OrderDTO result = orderService.addProductToOrder(orderId, productDTO);
+        Assertions.assertThrows(OptimisticLockingFailureException.class,
+                () -> orderService.addProductToOrder(orderId, productDTO, 4L));
+        Mockito.verifyNoInteractions(productService, salesRollupService);
+        Mockito.verify(orderRepository, Mockito.never()).insertOrderProduct(Mockito.any(), Mockito.any());
+        Mockito.verify(orderRepository, Mockito.never()).adjustClaimedCost(Mockito.any(), Mockito.anyDouble());
+    }
+
+    @Test
+    void testAddProductsToOrder() {
+        Long orderId = 1L;
+
+        Mockito.when(orderRepository.touchVersion(orderId)).thenReturn(1);
+        Mockito.when(orderRepository.findVersionById(orderId)).thenReturn(Optional.of(1L));
+        Mockito.when(productRepository.findDtosByIds(Mockito.anyCollection())).thenReturn(List.of(
+                new ProductDTO(2L, "Product 2", 20.0),
+                new ProductDTO(3L, "Product 3", 30.0)));
+        stubOrder(orderId);
+
+        OrderDTO result = orderService.addProductsToOrder(orderId, List.of(2L, 3L, 3L));
 
         Assertions.assertNotNull(result);
-        Mockito.verify(orderRepository).save(existingOrder);
+        Mockito.verify(productRepository, Mockito.times(1)).findDtosByIds(Mockito.anyCollection());
+        Mockito.verify(orderRepository).insertOrderProduct(orderId, 2L);
+        Mockito.verify(orderRepository, Mockito.times(2)).insertOrderProduct(orderId, 3L);
+        Mockito.verify(orderRepository).adjustClaimedCost(orderId, 80.0);
+        Mockito.verify(orderRepository, Mockito.never()).adjustCost(Mockito.any(), Mockito.anyDouble());
+        Mockito.verify(productRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    void testApplyLineChanges_ClaimedVersionIsBumpedOnce() {
+        Long orderId = 1L;
+
+        Mockito.when(orderRepository.claimVersion(orderId, 4L)).thenReturn(1);
+        Mockito.when(productRepository.findDtosByIds(Mockito.anyCollection()))
+                .thenReturn(List.of(new ProductDTO(2L, "Product 2", 20.0)));
+        Mockito.when(orderRepository.deleteOrderProduct(orderId, 2L)).thenReturn(1);
+        stubOrder(orderId);
+
+        OrderLineResult result = orderService.applyLineChanges(orderId,
+                List.of(OrderLineChange.added(2L), OrderLineChange.removed(2L)), 4L);
+
+        Assertions.assertEquals(5L, result.getVersion());
+        Mockito.verify(orderRepository).adjustClaimedCost(orderId, 20.0);
+        Mockito.verify(orderRepository).adjustClaimedCostByProduct(orderId, 2L, -1);
+        Mockito.verify(orderRepository, Mockito.never()).touchVersion(Mockito.any());
+        Mockito.verify(orderRepository, Mockito.never()).findVersionById(Mockito.any());
+    }
+
+    @Test
+    void testApplyLineChanges_StaleVersion() {
+        Long orderId = 1L;
+
+        Mockito.when(orderRepository.claimVersion(orderId, 4L)).thenReturn(0);
+        Mockito.when(orderRepository.existsById(orderId)).thenReturn(true);
+
+        Assertions.assertThrows(OptimisticLockingFailureException.class,
+                () -> orderService.applyLineChanges(orderId, List.of(OrderLineChange.added(2L)), 4L));
+        Mockito.verify(orderRepository, Mockito.never()).insertOrderProduct(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void testAddProductsToOrder_UnknownProduct() {
+        Long orderId = 1L;
+
+        Mockito.when(orderRepository.touchVersion(orderId)).thenReturn(1);
+        Mockito.when(orderRepository.findVersionById(orderId)).thenReturn(Optional.of(1L));
+        Mockito.when(productRepository.findDtosByIds(Mockito.anyCollection()))
+                .thenReturn(List.of(new ProductDTO(2L, "Product 2", 20.0)));
+
+        UnknownProductException exception = Assertions.assertThrows(UnknownProductException.class,
+                () -> orderService.addProductsToOrder(orderId, List.of(2L, 4L)));
+
+        Assertions.assertEquals(Set.of(4L), exception.getProductIds());
+        Mockito.verify(orderRepository, Mockito.never()).insertOrderProduct(Mockito.any(), Mockito.any());
     }
 
     @Test
     void testDeleteProductFromOrder() {
         Long orderId = 1L;
         Long productId = 2L;
-        Order existingOrder = new Order();
-        Product product = new Product();
-        product.setId(productId);
 
-        existingOrder.getProducts().add(product);
-
-        Mockito.when(orderRepository.findById(orderId)).thenReturn(Optional.of(existingOrder));
+        Mockito.when(orderRepository.touchVersion(orderId)).thenReturn(1);
+        Mockito.when(orderRepository.findVersionById(orderId)).thenReturn(Optional.of(1L));
+        Mockito.when(orderRepository.deleteOrderProduct(orderId, productId)).thenReturn(2);
+        stubOrder(orderId);
 
         OrderDTO result = orderService.deleteProductFromOrder(orderId, productId);
 
         Assertions.assertNotNull(result);
-        Assertions.assertEquals(0, existingOrder.getProducts().size());
-        Mockito.verify(orderRepository).save(existingOrder);
+        Mockito.verify(orderRepository).deleteOrderProduct(orderId, productId);
+        Mockito.verify(orderRepository).adjustClaimedCostByProduct(orderId, productId, -2);
+        Mockito.verify(orderRepository, Mockito.never()).save(Mockito.any());
     }
 
     @Test
     void testClearOrder() {
         Long orderId = 1L;
-        Order existingOrder = new Order();
-        Product product = new Product();
-
-        existingOrder.getProducts().add(product);
 
-        Mockito.when(orderRepository.findById(orderId)).thenReturn(Optional.of(existingOrder));
+        Mockito.when(orderRepository.resetCost(orderId)).thenReturn(1);
+        Mockito.when(orderRepository.findProductDtosByOrderId(orderId)).thenReturn(List.of(new ProductDTO(2L, "Product 2", 20.0)));
+        stubOrder(orderId);
 
         OrderDTO result = orderService.clearOrder(orderId);
 
         Assertions.assertNotNull(result);
-        Assertions.assertTrue(existingOrder.getProducts().isEmpty());
-        Mockito.verify(orderRepository).save(existingOrder);
+        Mockito.verify(orderRepository).deleteAllOrderProducts(orderId);
+        Mockito.verify(orderRepository).resetCost(orderId);
+    }
+
+    @Test
+    void testClearOrder_NonExistingOrder() {
+        Long orderId = 1L;
+
+        Mockito.when(orderRepository.resetCost(orderId)).thenReturn(0);
+
+        Assertions.assertNull(orderService.clearOrder(orderId));
+        Mockito.verify(orderRepository, Mockito.never()).deleteAllOrderProducts(orderId);
     }
 
     @Test
     void testGetAllProductsInOrder() {
         Long orderId = 1L;
-        Order order = new Order();
-        List<Product> products = new ArrayList<>();
-        products.add(new Product());
-        products.add(new Product());
-        order.setProducts(products);
+        List<ProductDTO> products = List.of(new ProductDTO(1L, "Product 1", 10.0), new ProductDTO(2L, "Product 2", 20.0));
 
-        Mockito.when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
-        Mockito.when(productMapper.productToProductDTO(Mockito.any())).thenReturn(new ProductDTO());
+        Mockito.when(orderRepository.findProductDtosByOrderId(orderId)).thenReturn(products);
 
         List<ProductDTO> result = orderService.getAllProductsInOrder(orderId);
 
         Assertions.assertNotNull(result);
         Assertions.assertEquals(2, result.size());
+        Mockito.verify(orderRepository, Mockito.never()).existsById(Mockito.any());
+    }
+
+    private void stubOrder(Long orderId) {
+        Order order = new Order();
+        Mockito.when(orderRepository.findWithProductsById(orderId)).thenReturn(Optional.of(order));
+        Mockito.when(orderMapper.orderToOrderDTO(order)).thenReturn(new OrderDTO(orderId, "2023-07-06", 0.0));
     }
-}
\ No newline at end of file
+}
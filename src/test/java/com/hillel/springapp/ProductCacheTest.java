@@ -0,0 +1,106 @@
+package com.hillel.springapp;
+
+import com.hillel.springapp.config.CacheConfiguration;
+import com.hillel.springapp.config.PaginationProperties;
+import com.hillel.springapp.config.ProductCacheProperties;
+import com.hillel.springapp.config.ProductSearchProperties;
+import com.hillel.springapp.dto.CacheStatsDTO;
+import com.hillel.springapp.dto.ProductDTO;
+import com.hillel.springapp.mapper.ProductMapperImpl;
+import com.hillel.springapp.repository.ProductRepository;
+import com.hillel.springapp.search.ProductSearchIndex;
+import com.hillel.springapp.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static com.hillel.springapp.config.CacheConfiguration.PRODUCTS;
+import static com.hillel.springapp.config.CacheConfiguration.PRODUCT_CATALOG;
+
+/**
+ * Runs outside a test transaction: product cache updates only apply once the surrounding
+ * transaction commits.
+ */
+@DataJpaTest
+@Import({ProductService.class, ProductMapperImpl.class, ProductSearchIndex.class, CacheConfiguration.class})
+@EnableConfigurationProperties({PaginationProperties.class, ProductCacheProperties.class,
+        ProductSearchProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductCacheTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        productService.getAllProducts();
+    }
+
+    @AfterEach
+    void cleanup() {
+        productRepository.deleteAll();
+        cacheManager.getCache(PRODUCTS).clear();
+        cacheManager.getCache(PRODUCT_CATALOG).clear();
+    }
+
+    @Test
+    void testCommittedProductIsCachedAfterCommit() {
+        ProductDTO added = transactionTemplate.execute(status -> {
+            ProductDTO product = productService.addProduct(new ProductDTO(0L, "Product", 10.0));
+            Assertions.assertNull(cacheManager.getCache(PRODUCTS).get(product.getId()));
+            Assertions.assertNotNull(cacheManager.getCache(PRODUCT_CATALOG).get("all"));
+            return product;
+        });
+
+        Cache.ValueWrapper cached = cacheManager.getCache(PRODUCTS).get(added.getId());
+        Assertions.assertNotNull(cached);
+        Assertions.assertEquals(added, cached.get());
+        Assertions.assertNull(cacheManager.getCache(PRODUCT_CATALOG).get("all"));
+    }
+
+    @Test
+    void testRolledBackProductNeverReachesTheCache() {
+        ProductDTO added = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return productService.addProduct(new ProductDTO(0L, "Product", 10.0));
+        });
+
+        Assertions.assertNull(cacheManager.getCache(PRODUCTS).get(added.getId()));
+        Assertions.assertNotNull(cacheManager.getCache(PRODUCT_CATALOG).get("all"));
+        Assertions.assertNull(productService.getProductById(added.getId()));
+    }
+
+    @Test
+    void testCacheStatsSeeThroughTheTransactionAwareCaches() {
+        List<CacheStatsDTO> stats = productService.getCacheStats();
+
+        Assertions.assertEquals(2, stats.size());
+        Assertions.assertEquals(PRODUCTS, stats.get(0).getName());
+        Assertions.assertEquals(1, stats.get(1).getSize());
+    }
+}
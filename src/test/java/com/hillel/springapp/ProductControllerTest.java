@@ -0,0 +1,72 @@
+package com.hillel.springapp;
+
+import com.hillel.springapp.controller.ProductController;
+import com.hillel.springapp.dto.BulkImportResultDTO;
+import com.hillel.springapp.dto.ProductDTO;
+import com.hillel.springapp.service.ProductImportService;
+import com.hillel.springapp.service.ProductService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Collections;
+import java.util.List;
+
+class ProductControllerTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ProductImportService productImportService;
+
+    @InjectMocks
+    private ProductController productController;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testImportProducts() {
+        List<ProductDTO> productDTOs = List.of(new ProductDTO(0L, "Apple", 1.5));
+        BulkImportResultDTO result = new BulkImportResultDTO(1, 3, 333.3, Collections.emptyList());
+        Mockito.when(productImportService.importProducts(productDTOs)).thenReturn(result);
+
+        ResponseEntity<BulkImportResultDTO> response = productController.importProducts(productDTOs);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertSame(result, response.getBody());
+    }
+
+    @Test
+    void testImportProductsCsv() {
+        String csv = "name,cost\nApple,1.5";
+        List<ProductDTO> parsed = List.of(new ProductDTO(0L, "Apple", 1.5));
+        BulkImportResultDTO result = new BulkImportResultDTO(1, 3, 333.3, Collections.emptyList());
+        Mockito.when(productImportService.parseCsv(csv)).thenReturn(parsed);
+        Mockito.when(productImportService.importProducts(parsed)).thenReturn(result);
+
+        ResponseEntity<BulkImportResultDTO> response = productController.importProductsCsv(csv);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertSame(result, response.getBody());
+    }
+
+    @Test
+    void testImportProductsCsv_MalformedCsv_ReturnsBadRequest() {
+        IllegalArgumentException error = new IllegalArgumentException("Line 1: expected 'name,cost'");
+
+        ResponseEntity<String> response = productController.handleIllegalArgument(error);
+
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        Assertions.assertEquals("Line 1: expected 'name,cost'", response.getBody());
+    }
+}
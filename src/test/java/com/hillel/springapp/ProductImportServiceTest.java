@@ -0,0 +1,88 @@
+package com.hillel.springapp;
+
+import com.hillel.springapp.config.ImportProperties;
+import com.hillel.springapp.dto.BulkImportResultDTO;
+import com.hillel.springapp.dto.ProductDTO;
+import com.hillel.springapp.mapper.ProductMapperImpl;
+import com.hillel.springapp.repository.ProductRepository;
+import com.hillel.springapp.search.ProductSearchIndex;
+import com.hillel.springapp.service.ProductImportService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@DataJpaTest(properties = "app.import.chunk-size=2")
+@Import({ProductImportService.class, ProductMapperImpl.class, ProductSearchIndex.class})
+@EnableConfigurationProperties(ImportProperties.class)
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Test
+    void testImportsInChunksAndIndexesProducts() {
+        List<ProductDTO> productDTOs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            productDTOs.add(new ProductDTO(0L, "Imported " + i, 10.0 + i));
+        }
+
+        BulkImportResultDTO result = productImportService.importProducts(productDTOs);
+
+        Assertions.assertEquals(5, result.getRows());
+        Assertions.assertEquals(3, result.getChunks().size());
+        Assertions.assertEquals(1, result.getChunks().get(2).getRows());
+        Assertions.assertEquals(5, productRepository.count());
+        Assertions.assertTrue(productSearchIndex.search("imported", 10, 100).isEmpty());
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        Assertions.assertEquals(5, productSearchIndex.search("imported", 10, 100).size());
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void testRolledBackImportIsNotIndexed() {
+        productImportService.importProducts(List.of(new ProductDTO(0L, "Discarded", 1.0)));
+
+        TestTransaction.end();
+
+        Assertions.assertTrue(productSearchIndex.search("discarded", 10, 100).isEmpty());
+    }
+
+    @Test
+    void testParsesCsvWithHeaderAndQuotedNames() {
+        List<ProductDTO> productDTOs = productImportService.parseCsv(
+                "name,cost\r\nApple,1.5\n\n\"Nuts, salted\",2\n\"12\"\" pizza\",9.99\n");
+
+        Assertions.assertEquals(3, productDTOs.size());
+        Assertions.assertEquals(new ProductDTO(0L, "Apple", 1.5), productDTOs.get(0));
+        Assertions.assertEquals("Nuts, salted", productDTOs.get(1).getName());
+        Assertions.assertEquals("12\" pizza", productDTOs.get(2).getName());
+        Assertions.assertEquals(9.99, productDTOs.get(2).getCost());
+    }
+
+    @Test
+    void testRejectsMalformedCsvLines() {
+        IllegalArgumentException missingCost = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> productImportService.parseCsv("Apple"));
+        IllegalArgumentException invalidCost = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> productImportService.parseCsv("Apple,1\nPear,cheap"));
+
+        Assertions.assertEquals("Line 1: expected 'name,cost'", missingCost.getMessage());
+        Assertions.assertEquals("Line 2: invalid cost", invalidCost.getMessage());
+    }
+}
@@ -0,0 +1,79 @@
+package com.hillel.springapp;
+
+import com.hillel.springapp.dto.ProductDTO;
+import com.hillel.springapp.search.ProductSearchIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new ProductSearchIndex();
+        index.addAll(List.of(
+                new ProductDTO(1L, "Green Tea", 3.0),
+                new ProductDTO(2L, "Tea", 2.0),
+                new ProductDTO(3L, "Teapot", 25.0),
+                new ProductDTO(4L, "Steamer", 40.0),
+                new ProductDTO(5L, "Coffee", 4.0)));
+    }
+
+    @Test
+    void testResultsAreRankedByMatchQuality() {
+        Assertions.assertEquals(List.of(2L, 3L, 1L, 4L), ids(index.search("TEA", 10, 1000)));
+    }
+
+    @Test
+    void testShortQueriesMatchWordPrefixes() {
+        Assertions.assertEquals(List.of(2L, 3L, 1L), ids(index.search("t", 10, 1000)));
+        Assertions.assertEquals(List.of(2L, 3L), ids(index.search("te", 2, 1000)));
+    }
+
+    @Test
+    void testCandidateCapCountsVerifiedMatchesOnly() {
+        for (long id = 10; id < 15; id++) {
+            index.add(new ProductDTO(id, "Tea Cream", 5.0));
+        }
+        index.add(new ProductDTO(15L, "Team Tea", 6.0));
+
+        Assertions.assertEquals(List.of(15L, 4L), ids(index.search("team", 10, 2)));
+        Assertions.assertEquals(List.of(2L, 1L), ids(index.search("t", 10, 2)));
+    }
+
+    @Test
+    void testRemovedAndRenamedProductsAreNoLongerFound() {
+        Assertions.assertTrue(index.remove(3L));
+        index.add(new ProductDTO(2L, "Herbal Infusion", 2.5));
+
+        Assertions.assertEquals(List.of(1L, 4L), ids(index.search("tea", 10, 1000)));
+        Assertions.assertEquals(List.of(2L), ids(index.search("infus", 10, 1000)));
+        Assertions.assertFalse(index.remove(3L));
+        Assertions.assertEquals(4, index.size());
+    }
+
+    @Test
+    void testLoadedChunksSkipProductsChangedDuringTheLoad() {
+        index.startLoad();
+        index.remove(3L);
+        index.add(new ProductDTO(6L, "Iced Tea", 3.5));
+        index.addLoaded(List.of(
+                new ProductDTO(3L, "Teapot", 25.0),
+                new ProductDTO(6L, "Tea Bags", 1.0),
+                new ProductDTO(7L, "Tea Cups", 8.0)));
+        index.finishLoad();
+        index.addLoaded(List.of(new ProductDTO(3L, "Teapot", 25.0)));
+
+        Assertions.assertEquals(List.of(2L, 3L, 7L, 6L, 1L, 4L), ids(index.search("tea", 10, 1000)));
+        Assertions.assertEquals("Iced Tea", index.search("iced", 10, 1000).get(0).getName());
+    }
+
+    private static List<Long> ids(List<ProductDTO> products) {
+        return products.stream().map(ProductDTO::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,97 @@
+package com.hillel.springapp;
+
+import com.hillel.springapp.config.ReplicaDataSourceProperties;
+import com.hillel.springapp.datasource.ReadWriteRoutingDataSource;
+import com.hillel.springapp.datasource.ReadYourWrites;
+import com.hillel.springapp.datasource.ReadYourWritesInterceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setup() {
+        primary = database("primary");
+        replica = database("replica");
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primary, List.of(replica),
+                ReplicaDataSourceProperties.Selection.ROUND_ROBIN);
+        routingDataSource.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.clear();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void testReadOnlyTransactionsGoToReplica() {
+        Assertions.assertEquals("primary", currentDatabase(false));
+        Assertions.assertEquals("replica", currentDatabase(true));
+    }
+
+    @Test
+    void testPinnedClientReadsFromPrimary() {
+        ReadYourWrites.pin();
+
+        Assertions.assertEquals("primary", currentDatabase(true));
+    }
+
+    @Test
+    void testAsyncRequestReleasesPinWithItsThread() {
+        ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(new ReplicaDataSourceProperties());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.afterCompletion(request("POST"), response, null, null);
+        MockHttpServletRequest read = request("GET");
+
+        interceptor.preHandle(read, response, null);
+        Assertions.assertTrue(ReadYourWrites.isPinned());
+        interceptor.afterConcurrentHandlingStarted(read, response, null);
+
+        Assertions.assertFalse(ReadYourWrites.isPinned());
+        Assertions.assertEquals("replica", currentDatabase(true));
+    }
+
+    private static MockHttpServletRequest request(String method) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/orders");
+        request.setUserPrincipal(() -> "serhii");
+        return request;
+    }
+
+    private String currentDatabase(boolean readOnly) {
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("select name from marker", String.class));
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(name)
+                .build();
+        new JdbcTemplate(database).execute("create table marker (name varchar(16))");
+        new JdbcTemplate(database).update("insert into marker values (?)", name);
+        return database;
+    }
+}
@@ -0,0 +1,67 @@
+package com.hillel.springapp;
+
+import com.hillel.springapp.controller.ReportController;
+import com.hillel.springapp.dto.DailySalesDTO;
+import com.hillel.springapp.dto.ProductSalesDTO;
+import com.hillel.springapp.service.SalesRollupService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDate;
+import java.util.List;
+
+class ReportControllerTest {
+
+    private static final LocalDate FROM = LocalDate.of(2023, 7, 1);
+    private static final LocalDate TO = LocalDate.of(2023, 7, 31);
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @InjectMocks
+    private ReportController reportController;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testGetDailySales() {
+        List<DailySalesDTO> dailySales = List.of(new DailySalesDTO(FROM, 3, 45.0));
+        Mockito.when(salesRollupService.getDailySales(FROM, TO)).thenReturn(dailySales);
+
+        ResponseEntity<List<DailySalesDTO>> response = reportController.getDailySales(FROM, TO);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals(dailySales, response.getBody());
+    }
+
+    @Test
+    void testGetTopProducts() {
+        List<ProductSalesDTO> topProducts = List.of(new ProductSalesDTO(2L, "Product 2", 5, 50.0));
+        Mockito.when(salesRollupService.getTopProducts(FROM, TO, 5)).thenReturn(topProducts);
+
+        ResponseEntity<List<ProductSalesDTO>> response = reportController.getTopProducts(FROM, TO, 5);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals(topProducts, response.getBody());
+    }
+
+    @Test
+    void testRebuild() {
+        Mockito.when(salesRollupService.rebuild()).thenReturn(31);
+
+        ResponseEntity<Integer> response = reportController.rebuild();
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals(31, response.getBody());
+    }
+}
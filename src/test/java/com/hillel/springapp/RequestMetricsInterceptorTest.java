@@ -0,0 +1,70 @@
+package com.hillel.springapp;
+
+import com.hillel.springapp.controller.PingController;
+import com.hillel.springapp.metrics.RequestMetricsInterceptor;
+import com.hillel.springapp.metrics.SqlStatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+class RequestMetricsInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestMetricsInterceptor interceptor;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new RequestMetricsInterceptor(meterRegistry);
+    }
+
+    @Test
+    void testRecordsStatementsPerHandler() throws NoSuchMethodException {
+        HandlerMethod handler = new HandlerMethod(new PingController(), "ping");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/ping");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SqlStatementCounter counter = new SqlStatementCounter();
+
+        counter.inspect("select 1");
+        interceptor.preHandle(request, response, handler);
+        counter.inspect("select 1");
+        counter.inspect("select 2");
+        interceptor.afterCompletion(request, response, handler, null);
+
+        DistributionSummary summary = meterRegistry.get(RequestMetricsInterceptor.SQL_STATEMENTS)
+                .tag("controller", "PingController")
+                .tag("method", "ping")
+                .summary();
+        Assertions.assertEquals(1, summary.count());
+        Assertions.assertEquals(2, summary.totalAmount());
+    }
+
+    @Test
+    void testAsyncRequestAddsUpStatementsOfAllThreads() throws Exception {
+        HandlerMethod handler = new HandlerMethod(new PingController(), "ping");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/ping");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SqlStatementCounter counter = new SqlStatementCounter();
+
+        interceptor.preHandle(request, response, handler);
+        counter.inspect("select 1");
+        Runnable work = SqlStatementCounter.propagating().decorate(() -> counter.inspect("select 2"));
+        interceptor.afterConcurrentHandlingStarted(request, response, handler);
+        counter.inspect("select 3");
+        Thread worker = new Thread(work);
+        worker.start();
+        worker.join();
+        interceptor.preHandle(request, response, handler);
+        counter.inspect("select 4");
+        interceptor.afterCompletion(request, response, handler, null);
+
+        DistributionSummary summary = meterRegistry.get(RequestMetricsInterceptor.SQL_STATEMENTS).summary();
+        Assertions.assertEquals(1, summary.count());
+        Assertions.assertEquals(3, summary.totalAmount());
+    }
+}
@@ -0,0 +1,127 @@
+package com.hillel.springapp;
+
+import com.hillel.springapp.config.ReportProperties;
+import com.hillel.springapp.dto.DailySalesDTO;
+import com.hillel.springapp.dto.ProductDTO;
+import com.hillel.springapp.dto.ProductSalesDTO;
+import com.hillel.springapp.entity.Order;
+import com.hillel.springapp.entity.Product;
+import com.hillel.springapp.repository.SalesDeltaRepository;
+import com.hillel.springapp.service.SalesRollupService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+@DataJpaTest(properties = "app.reports.fold-chunk-size=2")
+@Import(SalesRollupService.class)
+@EnableConfigurationProperties(ReportProperties.class)
+class SalesRollupServiceTest {
+
+    private static final LocalDateTime ORDERED_AT = LocalDateTime.of(2023, 7, 6, 12, 0);
+    private static final LocalDate DAY = ORDERED_AT.toLocalDate();
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private SalesDeltaRepository salesDeltaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Product cheap;
+    private Product expensive;
+
+    @BeforeEach
+    void setup() {
+        cheap = product("Cheap", 10.0);
+        expensive = product("Expensive", 25.0);
+    }
+
+    @Test
+    void testRecordLinesOnlyAppendsDeltas() {
+        salesRollupService.recordLines(ORDERED_AT, 1, List.of(dto(cheap), dto(cheap), dto(expensive)), 1);
+
+        Assertions.assertEquals(3, salesDeltaRepository.count());
+        Assertions.assertTrue(salesRollupService.getDailySales(DAY, DAY).isEmpty());
+    }
+
+    @Test
+    void testFoldAddsDeltasInChunksAndDeletesThem() {
+        salesRollupService.recordLines(ORDERED_AT, 1, List.of(dto(cheap), dto(expensive)), 1);
+        salesRollupService.recordLines(ORDERED_AT, 1, List.of(dto(cheap)), 1);
+        salesRollupService.recordLines(ORDERED_AT, 0, List.of(dto(expensive)), -1);
+
+        int folded = salesRollupService.foldDeltas();
+
+        Assertions.assertEquals(7, folded);
+        Assertions.assertEquals(0, salesDeltaRepository.count());
+        Assertions.assertEquals(List.of(new DailySalesDTO(DAY, 2, 20.0)), salesRollupService.getDailySales(DAY, DAY));
+        Assertions.assertEquals(List.of(new ProductSalesDTO(cheap.getId(), "Cheap", 2, 20.0)),
+                salesRollupService.getTopProducts(DAY, DAY, 10));
+    }
+
+    @Test
+    void testFoldUpdatesExistingRollups() {
+        salesRollupService.recordLines(ORDERED_AT, 1, List.of(dto(cheap)), 1);
+        salesRollupService.foldDeltas();
+        salesRollupService.recordLines(ORDERED_AT, 1, List.of(dto(cheap), dto(expensive)), 1);
+
+        salesRollupService.foldDeltas();
+
+        Assertions.assertEquals(List.of(new DailySalesDTO(DAY, 2, 45.0)), salesRollupService.getDailySales(DAY, DAY));
+        Assertions.assertEquals(List.of(new ProductSalesDTO(cheap.getId(), "Cheap", 2, 20.0),
+                        new ProductSalesDTO(expensive.getId(), "Expensive", 1, 25.0)),
+                salesRollupService.getTopProducts(DAY, DAY, 10));
+    }
+
+    @Test
+    void testRebuildRecomputesFromOrdersAndDropsDeltas() {
+        order(ORDERED_AT, cheap, expensive);
+        order(ORDERED_AT.plusDays(1), cheap);
+        salesRollupService.recordLines(ORDERED_AT, 1, Collections.singletonList(dto(cheap)), 1);
+
+        int days = salesRollupService.rebuild();
+
+        Assertions.assertEquals(2, days);
+        Assertions.assertEquals(0, salesDeltaRepository.count());
+        Assertions.assertEquals(List.of(new DailySalesDTO(DAY, 1, 35.0), new DailySalesDTO(DAY.plusDays(1), 1, 10.0)),
+                salesRollupService.getDailySales(DAY, DAY.plusDays(1)));
+        Assertions.assertEquals(List.of(new ProductSalesDTO(cheap.getId(), "Cheap", 2, 20.0),
+                        new ProductSalesDTO(expensive.getId(), "Expensive", 1, 25.0)),
+                salesRollupService.getTopProducts(DAY, DAY.plusDays(1), 10));
+    }
+
+    private Product product(String name, double cost) {
+        Product product = new Product();
+        product.setName(name);
+        product.setCost(cost);
+        entityManager.persist(product);
+        return product;
+    }
+
+    private void order(LocalDateTime date, Product... products) {
+        Order order = new Order();
+        order.setDate(date);
+        for (Product product : products) {
+            order.getProducts().add(product);
+            order.setCost(order.getCost() + product.getCost());
+        }
+        entityManager.persist(order);
+        entityManager.flush();
+    }
+
+    private static ProductDTO dto(Product product) {
+        return new ProductDTO(product.getId(), product.getName(), product.getCost());
+    }
+}
@@ -0,0 +1,68 @@
+package com.hillel.springapp;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import com.hillel.springapp.logging.SamplingTurboFilter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SamplingTurboFilterTest {
+
+    private LoggerContext loggerContext;
+    private SamplingTurboFilter filter;
+
+    @BeforeEach
+    void setup() {
+        loggerContext = new LoggerContext();
+        filter = new SamplingTurboFilter();
+        filter.setRates("sampled=3");
+    }
+
+    @Test
+    void testInfoEventsOfSampledLoggerAreThinnedOut() {
+        Logger logger = loggerContext.getLogger("sampled");
+        logger.setLevel(Level.INFO);
+
+        int passed = 0;
+        for (int i = 0; i < 9; i++) {
+            if (filter.decide(null, logger, Level.INFO, "message", null, null) == FilterReply.NEUTRAL) {
+                passed++;
+            }
+        }
+
+        Assertions.assertEquals(3, passed);
+    }
+
+    @Test
+    void testWarningsAndOtherLoggersAreNotSampled() {
+        Logger sampled = loggerContext.getLogger("sampled");
+        Logger other = loggerContext.getLogger("other");
+        sampled.setLevel(Level.INFO);
+        other.setLevel(Level.INFO);
+
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals(FilterReply.NEUTRAL, filter.decide(null, sampled, Level.WARN, "message", null, null));
+            Assertions.assertEquals(FilterReply.NEUTRAL, filter.decide(null, other, Level.INFO, "message", null, null));
+        }
+    }
+
+    @Test
+    void testFilterRegisteredInContextSamplesLoggedEvents() {
+        loggerContext.addTurboFilter(filter);
+        filter.start();
+        Logger logger = loggerContext.getLogger("sampled");
+        logger.setLevel(Level.INFO);
+
+        int enabled = 0;
+        for (int i = 0; i < 9; i++) {
+            if (logger.isInfoEnabled()) {
+                enabled++;
+            }
+        }
+
+        Assertions.assertEquals(3, enabled);
+    }
+}
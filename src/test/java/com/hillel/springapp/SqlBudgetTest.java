@@ -0,0 +1,175 @@
+package com.hillel.springapp;
+
+import com.hillel.springapp.config.CacheConfiguration;
+import com.hillel.springapp.config.ImportProperties;
+import com.hillel.springapp.config.OrderBatchProperties;
+import com.hillel.springapp.config.OrderCoalescingProperties;
+import com.hillel.springapp.config.OrderExportProperties;
+import com.hillel.springapp.config.PaginationProperties;
+import com.hillel.springapp.config.ProductCacheProperties;
+import com.hillel.springapp.config.ProductSearchProperties;
+import com.hillel.springapp.config.ReportProperties;
+import com.hillel.springapp.controller.OrderController;
+import com.hillel.springapp.controller.ProductController;
+import com.hillel.springapp.entity.Order;
+import com.hillel.springapp.entity.Product;
+import com.hillel.springapp.mapper.OrderMapperImpl;
+import com.hillel.springapp.mapper.ProductMapperImpl;
+import com.hillel.springapp.metrics.SqlStatementCounter;
+import com.hillel.springapp.repository.SalesDeltaRepository;
+import com.hillel.springapp.search.ProductSearchIndex;
+import com.hillel.springapp.service.OrderLineCoalescer;
+import com.hillel.springapp.service.OrderService;
+import com.hillel.springapp.service.ProductImportService;
+import com.hillel.springapp.service.ProductService;
+import com.hillel.springapp.service.SalesRollupService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * SQL round-trip budgets of the order and product endpoints, counted with
+ * {@link SqlStatementCounter} while the controller methods run against the real services.
+ * A change that adds a statement to one of these paths fails the build until the budget is
+ * raised on purpose. Sales deltas are written for real; their inserts are batched into one
+ * statement, but the pooled id sequence is read only every 50 ids (twice on first use), so
+ * paths that record deltas get {@link #ROLLUP_MARGIN} on top of their budget instead of an
+ * exact count.
+ */
+@DataJpaTest(properties = "app.orders.coalescing.enabled=false")
+@Import({OrderController.class, ProductController.class, OrderService.class, ProductService.class,
+        ProductImportService.class, OrderLineCoalescer.class, SalesRollupService.class, OrderMapperImpl.class,
+        ProductMapperImpl.class, ProductSearchIndex.class, CacheConfiguration.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@EnableConfigurationProperties({PaginationProperties.class, OrderBatchProperties.class,
+        ProductCacheProperties.class, ProductSearchProperties.class, OrderExportProperties.class,
+        OrderCoalescingProperties.class, ImportProperties.class, ReportProperties.class})
+class SqlBudgetTest {
+
+    private static final int ORDER_SIZE = 5;
+    private static final long MISSING_ID = Long.MAX_VALUE;
+    private static final int ROLLUP_MARGIN = 2;
+
+    @Autowired
+    private OrderController orderController;
+
+    @Autowired
+    private ProductController productController;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private SalesDeltaRepository salesDeltaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long orderId;
+    private Long spareProductId;
+
+    @BeforeEach
+    void setup() {
+        Order order = new Order();
+        order.setDate(LocalDateTime.of(2023, 7, 6, 12, 0));
+        for (int i = 0; i <= ORDER_SIZE; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setCost(10.0);
+            entityManager.persist(product);
+            if (i < ORDER_SIZE) {
+                order.getProducts().add(product);
+            } else {
+                spareProductId = product.getId();
+            }
+        }
+        entityManager.persist(order);
+        entityManager.flush();
+        entityManager.clear();
+        orderId = order.getId();
+    }
+
+    @Test
+    void testOrderReads() {
+        assertWithinBudget("GET /orders/{id}", 2,
+                () -> orderController.getOrderById(orderId, newRequest()), HttpStatus.OK);
+        assertWithinBudget("GET /orders/{id}/products", 2,
+                () -> orderController.getAllProductsInOrder(orderId, newRequest()), HttpStatus.OK);
+    }
+
+    @Test
+    void testOrderLineChanges() {
+        assertWithinBudget("POST /orders/{id}/products/ids", 8 + ROLLUP_MARGIN,
+                () -> orderController.addProductsToOrderByIds(orderId, List.of(spareProductId), null).join(),
+                HttpStatus.OK);
+        assertWithinBudget("DELETE /orders/{id}/products/{productId}", 8 + ROLLUP_MARGIN,
+                () -> orderController.deleteProductFromOrder(orderId, spareProductId, null).join(), HttpStatus.OK);
+        Assertions.assertEquals(4, salesDeltaRepository.count());
+    }
+
+    @Test
+    void testOrderLineChangesOfMissingOrder() {
+        assertWithinBudget("POST /orders/{id}/products/ids (404)", 1,
+                () -> orderController.addProductsToOrderByIds(MISSING_ID, List.of(spareProductId), null).join(),
+                HttpStatus.NOT_FOUND);
+        assertWithinBudget("DELETE /orders/{id}/products/{productId} (404)", 1,
+                () -> orderController.deleteProductFromOrder(MISSING_ID, spareProductId, null).join(),
+                HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void testClearOrder() {
+        SqlStatementCounter.reset();
+        orderService.clearOrder(orderId);
+        entityManager.flush();
+        int statements = SqlStatementCounter.current();
+        Assertions.assertTrue(statements <= 6 + ROLLUP_MARGIN,
+                "OrderService.clearOrder made " + statements + " SQL statements, its budget is " + (6 + ROLLUP_MARGIN));
+    }
+
+    @Test
+    void testDeleteOrder() {
+        assertWithinBudget("DELETE /orders/{id}", 5 + ROLLUP_MARGIN,
+                () -> orderController.deleteOrder(orderId), HttpStatus.NO_CONTENT);
+        assertWithinBudget("DELETE /orders/{id} (404)", 3,
+                () -> orderController.deleteOrder(orderId), HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void testDeleteProduct() {
+        assertWithinBudget("DELETE /products/{id}", 1,
+                () -> productController.deleteProduct(spareProductId), HttpStatus.NO_CONTENT);
+        assertWithinBudget("DELETE /products/{id} (404)", 1,
+                () -> productController.deleteProduct(spareProductId), HttpStatus.NOT_FOUND);
+    }
+
+    private void assertWithinBudget(String endpoint, int budget, Supplier<ResponseEntity<?>> call,
+                                    HttpStatus expectedStatus) {
+        SqlStatementCounter.reset();
+        ResponseEntity<?> response = call.get();
+        entityManager.flush();
+        int statements = SqlStatementCounter.current();
+        Assertions.assertEquals(expectedStatus, response.getStatusCode(), endpoint);
+        Assertions.assertTrue(statements <= budget,
+                endpoint + " made " + statements + " SQL statements, its budget is " + budget);
+    }
+
+    private static ServletWebRequest newRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest());
+    }
+}